@@ -0,0 +1,18 @@
+package study.querydslstudy.mapper;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * record 에 붙이면 RowProjectionProcessor 가 같은 패키지에 {이름}Mapper 를 만든다.
+ * <ul>
+ *     <li>{이름}Mapper.projection(...) : Querydsl select 에 쓰는 FactoryExpression. 생성자를 직접 호출한다(리플렉션 없음)</li>
+ *     <li>{이름}Mapper.INSTANCE : JDBC RowMapper. 컬럼을 record 컴포넌트 순서대로 읽고 primitive 컴포넌트는 박싱 없이 읽는다</li>
+ * </ul>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface RowProjection {
+}
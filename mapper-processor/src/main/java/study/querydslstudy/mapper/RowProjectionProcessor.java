@@ -0,0 +1,232 @@
+package study.querydslstudy.mapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.RecordComponentElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+
+/**
+ * {@link RowProjection} record 의 매퍼 소스를 만든다.
+ * 생성 코드는 Querydsl(FactoryExpressionBase)과 spring-jdbc(RowMapper)를 참조하므로 둘 다 있는 모듈에서만 쓴다.
+ */
+@SupportedAnnotationTypes("study.querydslstudy.mapper.RowProjection")
+public class RowProjectionProcessor extends AbstractProcessor {
+
+	// primitive -> ResultSet getter 이름(get 뒤), 박싱 타입
+	private static final Map<TypeKind, String[]> PRIMITIVES = Map.of(
+		TypeKind.LONG, new String[] {"Long", "Long"},
+		TypeKind.INT, new String[] {"Int", "Integer"},
+		TypeKind.SHORT, new String[] {"Short", "Short"},
+		TypeKind.BYTE, new String[] {"Byte", "Byte"},
+		TypeKind.DOUBLE, new String[] {"Double", "Double"},
+		TypeKind.FLOAT, new String[] {"Float", "Float"},
+		TypeKind.BOOLEAN, new String[] {"Boolean", "Boolean"}
+	);
+
+	// 박싱 타입 -> primitive 이름. getXxx + wasNull 로 읽어서 null 을 살린다
+	private static final Map<String, String> BOXED = Map.of(
+		"java.lang.Long", "long",
+		"java.lang.Integer", "int",
+		"java.lang.Short", "short",
+		"java.lang.Byte", "byte",
+		"java.lang.Double", "double",
+		"java.lang.Float", "float",
+		"java.lang.Boolean", "boolean"
+	);
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		for(TypeElement annotation : annotations) {
+			for(Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+				if(element.getKind() != ElementKind.RECORD) {
+					error(element, "@RowProjection 은 record 에만 붙일 수 있습니다");
+					continue;
+				}
+				if(element.getEnclosingElement().getKind() != ElementKind.PACKAGE) {
+					error(element, "@RowProjection record 는 최상위 타입이어야 합니다");
+					continue;
+				}
+				generate((TypeElement) element);
+			}
+		}
+		return true;
+	}
+
+	private void generate(TypeElement record) {
+		List<? extends RecordComponentElement> components = record.getRecordComponents();
+		for(RecordComponentElement component : components) {
+			if(!isSupported(component.asType())) {
+				error(component, "지원하지 않는 컴포넌트 타입입니다: " + component.asType());
+				return;
+			}
+		}
+
+		String packageName = processingEnv.getElementUtils().getPackageOf(record).getQualifiedName().toString();
+		String recordName = record.getSimpleName().toString();
+		String mapperName = record.getSimpleName() + "Mapper";
+
+		StringBuilder source = new StringBuilder();
+		if(!packageName.isEmpty()) {
+			source.append("package ").append(packageName).append(";\n\n");
+		}
+		source.append("import com.querydsl.core.types.Expression;\n")
+			.append("import com.querydsl.core.types.FactoryExpressionBase;\n")
+			.append("import com.querydsl.core.types.Visitor;\n")
+			.append("import org.springframework.jdbc.core.RowMapper;\n\n")
+			.append("import javax.annotation.processing.Generated;\n")
+			.append("import java.sql.ResultSet;\n")
+			.append("import java.sql.SQLException;\n")
+			.append("import java.util.List;\n\n");
+
+		source.append("/**\n * ").append(recordName).append(" 매퍼. RowProjectionProcessor 가 생성한다.\n */\n")
+			.append("@Generated(\"").append(RowProjectionProcessor.class.getName()).append("\")\n")
+			.append("public final class ").append(mapperName).append(" implements RowMapper<").append(recordName).append("> {\n\n")
+			.append("\tpublic static final ").append(mapperName).append(" INSTANCE = new ").append(mapperName).append("();\n\n")
+			.append("\tprivate ").append(mapperName).append("() {\n\t}\n\n");
+
+		// Querydsl projection 팩토리
+		StringJoiner parameters = new StringJoiner(", ");
+		StringJoiner arguments = new StringJoiner(", ");
+		for(RecordComponentElement component : components) {
+			parameters.add("Expression<" + expressionType(component.asType()) + "> " + component.getSimpleName());
+			arguments.add(component.getSimpleName());
+		}
+		source.append("\tpublic static Projection projection(").append(parameters).append(") {\n")
+			.append("\t\treturn new Projection(").append(arguments).append(");\n")
+			.append("\t}\n\n");
+
+		// JDBC: 컬럼 순서 = 컴포넌트 순서
+		source.append("\t@Override\n")
+			.append("\tpublic ").append(recordName).append(" mapRow(ResultSet rs, int rowNum) throws SQLException {\n");
+		int column = 1;
+		for(RecordComponentElement component : components) {
+			source.append(readColumn(component, column++));
+		}
+		source.append("\t\treturn new ").append(recordName).append("(").append(arguments).append(");\n")
+			.append("\t}\n\n");
+
+		// select 결과 Object[] 를 그대로 생성자에 넘긴다
+		StringJoiner conversions = new StringJoiner(",\n\t\t\t\t", "\n\t\t\t\t", "\n\t\t\t");
+		for(int i = 0; i < components.size(); i++) {
+			conversions.add(convertArg(components.get(i).asType(), "args[" + i + "]"));
+		}
+		source.append("\tpublic static final class Projection extends FactoryExpressionBase<").append(recordName).append("> {\n\n")
+			.append("\t\tprivate static final long serialVersionUID = 1L;\n\n")
+			// Expression 이 Serializable 이라 List 대신 배열로 들고 있는다
+			.append("\t\tprivate final Expression<?>[] args;\n\n")
+			.append("\t\tprivate Projection(").append(parameters).append(") {\n")
+			.append("\t\t\tsuper(").append(recordName).append(".class);\n")
+			.append("\t\t\tthis.args = new Expression<?>[] {").append(arguments).append("};\n")
+			.append("\t\t}\n\n")
+			.append("\t\t@Override\n")
+			.append("\t\tpublic List<Expression<?>> getArgs() {\n")
+			.append("\t\t\treturn List.of(args);\n")
+			.append("\t\t}\n\n")
+			.append("\t\t@Override\n")
+			.append("\t\tpublic ").append(recordName).append(" newInstance(Object... args) {\n")
+			.append("\t\t\treturn new ").append(recordName).append("(").append(conversions).append(");\n")
+			.append("\t\t}\n\n")
+			.append("\t\t@Override\n")
+			.append("\t\tpublic <R, C> R accept(Visitor<R, C> v, C context) {\n")
+			.append("\t\t\treturn v.visit(this, context);\n")
+			.append("\t\t}\n")
+			.append("\t}\n")
+			.append("}\n");
+
+		String qualifiedMapperName = packageName.isEmpty() ? mapperName : packageName + "." + mapperName;
+		try(Writer writer = processingEnv.getFiler().createSourceFile(qualifiedMapperName, record).openWriter()) {
+			writer.write(source.toString());
+		}
+		catch(IOException e) {
+			error(record, "매퍼를 생성하지 못했습니다: " + e.getMessage());
+		}
+	}
+
+	private String readColumn(RecordComponentElement component, int column) {
+		TypeMirror type = component.asType();
+		String name = component.getSimpleName().toString();
+		if(type.getKind().isPrimitive()) {
+			return "\t\t" + type + " " + name + " = rs.get" + PRIMITIVES.get(type.getKind())[0] + "(" + column + ");\n";
+		}
+
+		String typeName = typeName(type);
+		String qualifiedName = qualifiedName(type);
+		if(BOXED.containsKey(qualifiedName)) {
+			String primitive = BOXED.get(qualifiedName);
+			String getter = Character.toUpperCase(primitive.charAt(0)) + primitive.substring(1);
+			return "\t\t" + primitive + " " + name + "Value = rs.get" + getter + "(" + column + ");\n"
+				+ "\t\t" + typeName + " " + name + " = rs.wasNull() ? null : " + name + "Value;\n";
+		}
+		if(qualifiedName.equals("java.lang.String")) {
+			return "\t\tString " + name + " = rs.getString(" + column + ");\n";
+		}
+		if(qualifiedName.equals("java.math.BigDecimal")) {
+			return "\t\t" + typeName + " " + name + " = rs.getBigDecimal(" + column + ");\n";
+		}
+		return "\t\t" + typeName + " " + name + " = rs.getObject(" + column + ", " + typeName + ".class);\n";
+	}
+
+	private String convertArg(TypeMirror type, String arg) {
+		if(type.getKind() == TypeKind.BOOLEAN) {
+			return "(Boolean) " + arg;
+		}
+		if(type.getKind().isPrimitive()) {
+			// count() 처럼 Long 으로 오는 값도 받도록 Number 로 변환한다
+			return "((Number) " + arg + ")." + type + "Value()";
+		}
+		return "(" + typeName(type) + ") " + arg;
+	}
+
+	private String expressionType(TypeMirror type) {
+		if(type.getKind().isPrimitive()) {
+			return PRIMITIVES.get(type.getKind())[1];
+		}
+		return typeName(type);
+	}
+
+	private boolean isSupported(TypeMirror type) {
+		if(type.getKind().isPrimitive()) {
+			return PRIMITIVES.containsKey(type.getKind());
+		}
+		// 제네릭 타입은 Class 리터럴로 읽을 수 없다
+		return type.getKind() == TypeKind.DECLARED && ((DeclaredType) type).getTypeArguments().isEmpty();
+	}
+
+	private String qualifiedName(TypeMirror type) {
+		return ((TypeElement) ((DeclaredType) type).asElement()).getQualifiedName().toString();
+	}
+
+	// java.lang 타입은 짧은 이름으로 쓴다
+	private String typeName(TypeMirror type) {
+		String qualifiedName = qualifiedName(type);
+		Element enclosing = ((DeclaredType) type).asElement().getEnclosingElement();
+		if(enclosing instanceof PackageElement packageElement && packageElement.getQualifiedName().contentEquals("java.lang")) {
+			return qualifiedName.substring("java.lang.".length());
+		}
+		return qualifiedName;
+	}
+
+	private void error(Element element, String message) {
+		processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, message, element);
+	}
+}
@@ -0,0 +1,49 @@
+package study.querydslstudy.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydslstudy.QuerydslStudyApplication;
+
+import java.util.Arrays;
+
+/**
+ * 벤치마크용 스프링 컨텍스트. 내장 H2(in-memory)에 seed 프로파일(MemberSeeder)로 데이터를 적재한다.
+ * 같은 random-seed 를 쓰므로 벤치마크마다 동일한 데이터셋이 만들어진다.
+ */
+public final class BenchmarkContext {
+
+	private BenchmarkContext() {
+	}
+
+	public static ConfigurableApplicationContext start(int memberCount, int teamCount) {
+		return new SpringApplicationBuilder(QuerydslStudyApplication.class)
+			.web(WebApplicationType.NONE)
+			.run(args(memberCount, teamCount));
+	}
+
+	// 임의 포트로 웹 서버까지 띄운다. 포트는 local.server.port 프로퍼티로 얻는다
+	public static ConfigurableApplicationContext startWeb(int memberCount, int teamCount, String... extraArgs) {
+		String[] args = args(memberCount, teamCount);
+		String[] allArgs = Arrays.copyOf(args, args.length + extraArgs.length + 1);
+		allArgs[args.length] = "--server.port=0";
+		System.arraycopy(extraArgs, 0, allArgs, args.length + 1, extraArgs.length);
+
+		return new SpringApplicationBuilder(QuerydslStudyApplication.class)
+			.web(WebApplicationType.SERVLET)
+			.run(allArgs);
+	}
+
+	private static String[] args(int memberCount, int teamCount) {
+		return new String[] {
+			"--spring.profiles.active=seed",
+			"--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+			"--seed.members=" + memberCount,
+			"--seed.teams=" + teamCount,
+			"--seed.progress-interval=" + Integer.MAX_VALUE,
+			"--decorator.datasource.enabled=false",
+			"--query-counter.n-plus-one.enabled=false",
+			"--logging.level.org.hibernate.SQL=warn"
+		};
+	}
+}
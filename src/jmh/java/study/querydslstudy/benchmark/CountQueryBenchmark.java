@@ -0,0 +1,102 @@
+package study.querydslstudy.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.repository.MemberRepository;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydslstudy.entity.QMember.member;
+import static study.querydslstudy.entity.QTeam.team;
+
+/**
+ * 검색 total 계산 비교.
+ * <ul>
+ *     <li>joinedCount : 기존 searchPageComplex 의 count (select(member) + left join team + fetchCount)</li>
+ *     <li>prunedCount : countByCondition (select(member.count()), team 조건이 없으면 join 없음)</li>
+ *     <li>exists : existsByCondition (limit 1)</li>
+ * </ul>
+ * shape: all(조건 없음), age(나이 범위), teamName(팀 이름, join 이 필요한 조건 형태)
+ * 실행: ./gradlew jmh -PjmhArgs="CountQuery -p memberCount=1000000"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CountQueryBenchmark {
+
+	@Param({"100000"})
+	public int memberCount;
+
+	@Param({"100"})
+	public int teamCount;
+
+	@Param({"all", "age", "teamName"})
+	public String shape;
+
+	private ConfigurableApplicationContext context;
+
+	private TransactionTemplate transactionTemplate;
+
+	private JPAQueryFactory queryFactory;
+
+	private MemberRepository memberRepository;
+
+	private MemberSearchCondition condition;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start(memberCount, teamCount);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		transactionTemplate.setReadOnly(true);
+		queryFactory = context.getBean(JPAQueryFactory.class);
+		memberRepository = context.getBean(MemberRepository.class);
+
+		condition = new MemberSearchCondition();
+		switch(shape) {
+			case "age" -> {
+				condition.setAgeGoe(20);
+				condition.setAgeLoe(40);
+			}
+			case "teamName" -> condition.setTeamName("team7");
+			default -> {
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	@SuppressWarnings("deprecation")
+	public Long joinedCount() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(member)
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(
+				condition.getTeamName() != null ? team.name.eq(condition.getTeamName()) : null,
+				condition.getAgeGoe() != null ? member.age.goe(condition.getAgeGoe()) : null,
+				condition.getAgeLoe() != null ? member.age.loe(condition.getAgeLoe()) : null
+			)
+			.fetchCount());
+	}
+
+	@Benchmark
+	public long prunedCount() {
+		return memberRepository.countByCondition(condition);
+	}
+
+	@Benchmark
+	public boolean exists() {
+		return memberRepository.existsByCondition(condition);
+	}
+}
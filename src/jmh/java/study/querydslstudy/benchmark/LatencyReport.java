@@ -0,0 +1,205 @@
+package study.querydslstudy.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 시나리오별 지연 히스토그램(마이크로초)과 리포트, p99 기준선 비교.
+ * <ul>
+ *     <li>responseTime : 예정 발송 시각부터 응답까지. 서버가 밀려서 발송이 늦어진 시간까지 포함한다(coordinated omission 보정)</li>
+ *     <li>serviceTime : 실제 발송부터 응답까지. responseTime 과 차이가 크면 부하를 따라가지 못한 것이다</li>
+ * </ul>
+ */
+final class LatencyReport {
+
+	static final String OVERALL = "overall";
+
+	private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+	private final Map<String, Stats> stats = new LinkedHashMap<>();
+
+	LatencyReport(List<LoadMix.Scenario> scenarios) {
+		for(LoadMix.Scenario scenario : scenarios) {
+			stats.put(scenario.name(), new Stats());
+		}
+	}
+
+	void record(String scenario, long intendedNanos, long sentNanos, long doneNanos, boolean error) {
+		Stats s = stats.get(scenario);
+		s.responseTime.recordValue(Math.max((doneNanos - intendedNanos) / 1_000, 0));
+		s.serviceTime.recordValue(Math.max((doneNanos - sentNanos) / 1_000, 0));
+		if(error) {
+			s.errors.increment();
+		}
+	}
+
+	// 워밍업 구간 기록을 버린다
+	void reset() {
+		for(Stats s : stats.values()) {
+			s.responseTime.reset();
+			s.serviceTime.reset();
+			s.errors.reset();
+		}
+	}
+
+	long totalCount() {
+		return overall().responseTime.getTotalCount();
+	}
+
+	long totalErrors() {
+		return overall().errors.sum();
+	}
+
+	/**
+	 * 시나리오별 + 전체 p99 응답 시간(ms). 기준선 파일과 같은 키를 쓴다.
+	 */
+	Map<String, Double> p99Millis() {
+		Map<String, Double> result = new TreeMap<>();
+		stats.forEach((name, s) -> {
+			if(s.responseTime.getTotalCount() > 0) {
+				result.put(name, millis(s.responseTime.getValueAtPercentile(99)));
+			}
+		});
+		result.put(OVERALL, millis(overall().responseTime.getValueAtPercentile(99)));
+		return result;
+	}
+
+	/**
+	 * 콘솔 요약, JSON 리포트(실행끼리 비교용), 시나리오별 .hgrm(HdrHistogram 분포, 그래프용)을 쓴다.
+	 */
+	void write(Path reportDir, Map<String, Object> settings, PrintStream out) throws IOException {
+		Files.createDirectories(reportDir);
+
+		Map<String, Stats> all = new LinkedHashMap<>(stats);
+		all.put(OVERALL, overall());
+
+		Map<String, Object> scenarios = new LinkedHashMap<>();
+		out.printf("%-16s %8s %6s %10s %10s %10s %10s %10s %12s%n",
+			"scenario", "count", "errors", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)", "svc p99(ms)");
+		for(Map.Entry<String, Stats> entry : all.entrySet()) {
+			Stats s = entry.getValue();
+			Histogram responseTime = s.responseTime;
+			if(responseTime.getTotalCount() == 0) {
+				continue;
+			}
+			out.printf("%-16s %8d %6d %10.2f %10.2f %10.2f %10.2f %10.2f %12.2f%n",
+				entry.getKey(), responseTime.getTotalCount(), s.errors.sum(),
+				millis(responseTime.getValueAtPercentile(50)), millis(responseTime.getValueAtPercentile(90)),
+				millis(responseTime.getValueAtPercentile(99)), millis(responseTime.getValueAtPercentile(99.9)),
+				millis(responseTime.getMaxValue()), millis(s.serviceTime.getValueAtPercentile(99)));
+
+			Map<String, Object> scenario = new LinkedHashMap<>();
+			scenario.put("count", responseTime.getTotalCount());
+			scenario.put("errors", s.errors.sum());
+			scenario.put("responseTimeMillis", summary(responseTime));
+			scenario.put("serviceTimeMillis", summary(s.serviceTime));
+			scenarios.put(entry.getKey(), scenario);
+
+			try(PrintStream hgrm = new PrintStream(Files.newOutputStream(reportDir.resolve(entry.getKey() + ".hgrm")))) {
+				// 값 단위가 마이크로초이므로 1000 으로 나눠 ms 로 출력한다
+				responseTime.outputPercentileDistribution(hgrm, 1000.0);
+			}
+		}
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("settings", settings);
+		report.put("scenarios", scenarios);
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT)
+			.writeValue(reportDir.resolve("report.json").toFile(), report);
+	}
+
+	/**
+	 * 기준선보다 p99 가 허용치 이상 나빠진 항목을 돌려준다. 기준선에 없는 항목은 비교하지 않는다.
+	 * 허용치는 max(기준선 * (1 + tolerance), 기준선 + minSlackMillis). 짧은 지연의 잡음으로 실패하지 않도록 절대 여유를 둔다.
+	 */
+	static List<String> regressions(Map<String, Double> baseline, Map<String, Double> current, double tolerance, double minSlackMillis) {
+		List<String> regressions = new ArrayList<>();
+		baseline.forEach((name, baselineP99) -> {
+			Double p99 = current.get(name);
+			if(p99 == null) {
+				return;
+			}
+			double limit = Math.max(baselineP99 * (1 + tolerance), baselineP99 + minSlackMillis);
+			if(p99 > limit) {
+				regressions.add(String.format("%s: p99 %.2fms > 허용 %.2fms (기준선 %.2fms)", name, p99, limit, baselineP99));
+			}
+		});
+		return regressions;
+	}
+
+	static Map<String, Double> readBaseline(Path file) throws IOException {
+		Properties properties = new Properties();
+		try(Reader reader = Files.newBufferedReader(file)) {
+			properties.load(reader);
+		}
+		Map<String, Double> baseline = new TreeMap<>();
+		for(String key : properties.stringPropertyNames()) {
+			if(key.endsWith(".p99")) {
+				baseline.put(key.substring(0, key.length() - ".p99".length()), Double.parseDouble(properties.getProperty(key)));
+			}
+		}
+		return baseline;
+	}
+
+	static void writeBaseline(Path file, Map<String, Double> p99Millis, String comment) throws IOException {
+		Files.createDirectories(file.toAbsolutePath().getParent());
+		try(Writer writer = Files.newBufferedWriter(file)) {
+			writer.write("# " + comment + "\n");
+			writer.write("# 시나리오별 p99 응답 시간(ms). ./gradlew loadTest -PloadTestArgs=\"--update-baseline\" 로 갱신한다\n");
+			for(Map.Entry<String, Double> entry : p99Millis.entrySet()) {
+				writer.write(entry.getKey() + ".p99=" + String.format("%.3f", entry.getValue()) + "\n");
+			}
+		}
+	}
+
+	private Stats overall() {
+		Stats overall = new Stats();
+		for(Stats s : stats.values()) {
+			overall.responseTime.add(s.responseTime);
+			overall.serviceTime.add(s.serviceTime);
+			overall.errors.add(s.errors.sum());
+		}
+		return overall;
+	}
+
+	private static Map<String, Double> summary(Histogram histogram) {
+		Map<String, Double> summary = new LinkedHashMap<>();
+		for(double percentile : PERCENTILES) {
+			summary.put("p" + (percentile == Math.rint(percentile) ? String.valueOf((int) percentile) : String.valueOf(percentile)),
+				millis(histogram.getValueAtPercentile(percentile)));
+		}
+		summary.put("max", millis(histogram.getMaxValue()));
+		summary.put("mean", histogram.getMean() / 1000.0);
+		return summary;
+	}
+
+	private static double millis(long micros) {
+		return micros / 1000.0;
+	}
+
+	private static final class Stats {
+
+		// 자동 크기 조정, 유효숫자 3자리
+		private final Histogram responseTime = new ConcurrentHistogram(3);
+
+		private final Histogram serviceTime = new ConcurrentHistogram(3);
+
+		private final LongAdder errors = new LongAdder();
+	}
+}
@@ -0,0 +1,102 @@
+package study.querydslstudy.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * 가중치를 가진 요청 시나리오 묶음. 형식은 loadtest/member-search-mix.txt 참고.
+ * 치환자 값 범위는 seed 데이터(BenchmarkContext)의 팀 수, 회원 수에 맞춘다.
+ */
+final class LoadMix {
+
+	record Scenario(String name, int weight, String template) {
+	}
+
+	private final List<Scenario> scenarios;
+
+	// 누적 가중치. 난수 하나로 시나리오를 고른다
+	private final int[] cumulativeWeights;
+
+	private final int teamCount;
+
+	private final long memberCount;
+
+	private LoadMix(List<Scenario> scenarios, int teamCount, long memberCount) {
+		this.scenarios = scenarios;
+		this.teamCount = teamCount;
+		this.memberCount = memberCount;
+		this.cumulativeWeights = new int[scenarios.size()];
+		int sum = 0;
+		for(int i = 0; i < scenarios.size(); i++) {
+			sum += scenarios.get(i).weight();
+			cumulativeWeights[i] = sum;
+		}
+	}
+
+	static LoadMix load(String resource, int teamCount, long memberCount) {
+		InputStream in = LoadMix.class.getClassLoader().getResourceAsStream(resource);
+		if(in == null) {
+			throw new IllegalArgumentException("요청 구성 파일이 없습니다: " + resource);
+		}
+
+		List<Scenario> scenarios = new ArrayList<>();
+		try(BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+			String line;
+			while((line = reader.readLine()) != null) {
+				line = line.strip();
+				if(line.isEmpty() || line.startsWith("#")) {
+					continue;
+				}
+				String[] parts = line.split("\\s+", 3);
+				if(parts.length != 3) {
+					throw new IllegalArgumentException("요청 구성 형식이 잘못되었습니다: " + line);
+				}
+				int weight = Integer.parseInt(parts[0]);
+				if(weight < 1) {
+					throw new IllegalArgumentException("가중치는 1 이상이어야 합니다: " + line);
+				}
+				scenarios.add(new Scenario(parts[1], weight, parts[2]));
+			}
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		if(scenarios.isEmpty()) {
+			throw new IllegalArgumentException("요청 구성이 비어 있습니다: " + resource);
+		}
+		return new LoadMix(List.copyOf(scenarios), teamCount, memberCount);
+	}
+
+	List<Scenario> scenarios() {
+		return scenarios;
+	}
+
+	Scenario next(SplittableRandom random) {
+		int pick = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+		for(int i = 0; i < cumulativeWeights.length; i++) {
+			if(pick < cumulativeWeights[i]) {
+				return scenarios.get(i);
+			}
+		}
+		throw new IllegalStateException();
+	}
+
+	String render(Scenario scenario, SplittableRandom random) {
+		int ageFrom = random.nextInt(0, 91);
+		return scenario.template()
+			.replace("{team}", "team" + random.nextInt(teamCount))
+			.replace("{member}", "member" + random.nextLong(memberCount))
+			.replace("{ageFrom}", String.valueOf(ageFrom))
+			.replace("{ageTo}", String.valueOf(ageFrom + 10))
+			.replace("{page}", String.valueOf(random.nextInt(5)))
+			.replace("{deepPage}", String.valueOf(random.nextInt(100, 1001)));
+	}
+}
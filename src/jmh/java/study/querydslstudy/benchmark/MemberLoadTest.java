@@ -0,0 +1,200 @@
+package study.querydslstudy.benchmark;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 내장 인스턴스(BenchmarkContext.startWeb)에 회원 검색 요청 구성을 고정 도착률(open loop)로 보낸다.
+ * 요청은 응답을 기다리지 않고 예정 시각마다 발송하고, 지연은 예정 시각부터 재므로 서버가 밀려도 측정이 누락되지 않는다.
+ * 전체/시나리오별 p99 가 기준선보다 허용치 이상 나빠지면 종료 코드 1 로 끝난다(Gradle loadTest 태스크 실패).
+ *
+ * <pre>
+ * ./gradlew loadTest -PloadTestArgs="--rate=300 --duration=60s"
+ * ./gradlew loadTest -PloadTestArgs="--update-baseline"
+ * </pre>
+ * 옵션(기본값): --rate=200(요청/초) --warmup=15s --duration=30s --members=100000 --teams=100 --seed=42
+ * --mix=loadtest/member-search-mix.txt --timeout=10s --tolerance=0.2 --min-slack=2ms --max-error-ratio=0.01
+ * --report-dir --baseline --update-baseline
+ * 기준선 파일이 없으면 이번 결과로 만들고 통과한다. 기준선은 같은 장비, 같은 옵션에서 만든 값끼리만 비교한다.
+ */
+public final class MemberLoadTest {
+
+	private MemberLoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> options = parse(args);
+		double rate = Double.parseDouble(options.getOrDefault("rate", "200"));
+		Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "15s"));
+		Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "30s"));
+		int memberCount = Integer.parseInt(options.getOrDefault("members", "100000"));
+		int teamCount = Integer.parseInt(options.getOrDefault("teams", "100"));
+		long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+		String mixResource = options.getOrDefault("mix", "loadtest/member-search-mix.txt");
+		Duration timeout = DurationStyle.detectAndParse(options.getOrDefault("timeout", "10s"));
+		double tolerance = Double.parseDouble(options.getOrDefault("tolerance", "0.2"));
+		double minSlackMillis = DurationStyle.detectAndParse(options.getOrDefault("min-slack", "2ms")).toNanos() / 1_000_000.0;
+		double maxErrorRatio = Double.parseDouble(options.getOrDefault("max-error-ratio", "0.01"));
+		Path reportDir = Path.of(options.getOrDefault("report-dir", "build/reports/loadtest"));
+		Path baselineFile = Path.of(options.getOrDefault("baseline", "src/jmh/loadtest/member-search-baseline.properties"));
+		boolean updateBaseline = options.containsKey("update-baseline");
+
+		if(rate <= 0) {
+			throw new IllegalArgumentException("rate 는 0 보다 커야 합니다.");
+		}
+
+		LoadMix mix = LoadMix.load(mixResource, teamCount, memberCount);
+		LatencyReport report = new LatencyReport(mix.scenarios());
+
+		int exitCode;
+		ConfigurableApplicationContext context = BenchmarkContext.startWeb(memberCount, teamCount);
+		try {
+			String baseUri = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+			HttpClient httpClient = HttpClient.newBuilder()
+				.version(HttpClient.Version.HTTP_1_1)
+				.connectTimeout(Duration.ofSeconds(5))
+				.build();
+			// 워밍업과 측정이 같은 요청 순서를 쓰지 않도록 난수를 이어서 쓴다
+			SplittableRandom random = new SplittableRandom(seed);
+
+			System.out.printf("warmup %s at %.0f req/s%n", warmup, rate);
+			run(httpClient, baseUri, mix, random, rate, warmup, timeout, report);
+			report.reset();
+
+			System.out.printf("measure %s at %.0f req/s%n", duration, rate);
+			run(httpClient, baseUri, mix, random, rate, duration, timeout, report);
+
+			Map<String, Object> settings = new LinkedHashMap<>();
+			settings.put("time", Instant.now().toString());
+			settings.put("rate", rate);
+			settings.put("warmupSeconds", warmup.toSeconds());
+			settings.put("durationSeconds", duration.toSeconds());
+			settings.put("members", memberCount);
+			settings.put("teams", teamCount);
+			settings.put("seed", seed);
+			settings.put("mix", mixResource);
+			report.write(reportDir, settings, System.out);
+			System.out.println("report: " + reportDir.toAbsolutePath());
+
+			exitCode = check(report, baselineFile, updateBaseline, tolerance, minSlackMillis, maxErrorRatio,
+				String.format("rate=%.0f duration=%s members=%d teams=%d mix=%s", rate, duration, memberCount, teamCount, mixResource));
+		}
+		finally {
+			context.close();
+		}
+		System.exit(exitCode);
+	}
+
+	/**
+	 * intervalNanos 간격의 예정 시각마다 요청을 비동기로 보낸다. 발송 스레드가 늦어져도 예정 시각은 밀리지 않는다.
+	 * 구간이 끝나면 남은 응답을 기다린다.
+	 */
+	private static void run(HttpClient httpClient, String baseUri, LoadMix mix, SplittableRandom random,
+							double rate, Duration duration, Duration timeout, LatencyReport report) throws InterruptedException {
+		long intervalNanos = Math.max(Math.round(1_000_000_000L / rate), 1);
+		long start = System.nanoTime();
+		long end = start + duration.toNanos();
+		AtomicLong inFlight = new AtomicLong();
+
+		for(long i = 0; ; i++) {
+			long intended = start + i * intervalNanos;
+			if(intended - end >= 0) {
+				break;
+			}
+			long wait = intended - System.nanoTime();
+			if(wait > 0) {
+				LockSupport.parkNanos(wait);
+			}
+
+			LoadMix.Scenario scenario = mix.next(random);
+			HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + mix.render(scenario, random)))
+				.timeout(timeout)
+				.GET()
+				.build();
+
+			inFlight.incrementAndGet();
+			long sent = System.nanoTime();
+			httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+				.whenComplete((response, error) -> {
+					report.record(scenario.name(), intended, sent, System.nanoTime(), error != null || response.statusCode() >= 400);
+					inFlight.decrementAndGet();
+				});
+		}
+
+		// 요청마다 timeout 이 있으므로 그 두 배 안에는 모두 끝난다
+		long drainDeadline = System.nanoTime() + timeout.toNanos() * 2;
+		while(inFlight.get() > 0 && System.nanoTime() - drainDeadline < 0) {
+			Thread.sleep(10);
+		}
+		if(inFlight.get() > 0) {
+			System.out.println("응답을 기다리다 시간이 초과되었습니다. 남은 요청: " + inFlight.get());
+		}
+	}
+
+	private static int check(LatencyReport report, Path baselineFile, boolean updateBaseline,
+							 double tolerance, double minSlackMillis, double maxErrorRatio, String comment) throws Exception {
+		long total = report.totalCount();
+		long errors = report.totalErrors();
+		if(total == 0) {
+			System.out.println("FAIL: 완료된 요청이 없습니다.");
+			return 1;
+		}
+		if(errors > total * maxErrorRatio) {
+			System.out.printf("FAIL: 오류 %d/%d 건이 허용 비율 %.2f%% 를 넘었습니다.%n", errors, total, maxErrorRatio * 100);
+			return 1;
+		}
+
+		Map<String, Double> p99 = report.p99Millis();
+		if(updateBaseline || !Files.exists(baselineFile)) {
+			LatencyReport.writeBaseline(baselineFile, p99, comment);
+			System.out.println("기준선을 기록했습니다: " + baselineFile.toAbsolutePath());
+			return 0;
+		}
+
+		List<String> regressions = LatencyReport.regressions(LatencyReport.readBaseline(baselineFile), p99, tolerance, minSlackMillis);
+		if(!regressions.isEmpty()) {
+			System.out.println("FAIL: p99 가 기준선보다 나빠졌습니다.");
+			regressions.forEach(regression -> System.out.println("  " + regression));
+			return 1;
+		}
+		System.out.println("PASS: p99 가 기준선 허용치 안에 있습니다.");
+		return 0;
+	}
+
+	// --name=value, 값이 없으면 플래그
+	private static Map<String, String> parse(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for(String arg : args) {
+			if(arg.isBlank()) {
+				continue;
+			}
+			if(!arg.startsWith("--")) {
+				throw new IllegalArgumentException("옵션은 --name=value 형식이어야 합니다: " + arg);
+			}
+			int separator = arg.indexOf('=');
+			if(separator < 0) {
+				options.put(arg.substring(2), "true");
+			}
+			else {
+				options.put(arg.substring(2, separator), arg.substring(separator + 1));
+			}
+		}
+		return options;
+	}
+}
@@ -0,0 +1,92 @@
+package study.querydslstudy.benchmark;
+
+import com.querydsl.core.types.Projections;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.MemberDto;
+import study.querydslstudy.dto.MemberRecord;
+import study.querydslstudy.dto.MemberRecordMapper;
+import study.querydslstudy.dto.QMemberDto;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydslstudy.entity.QMember.member;
+
+/**
+ * QuerydslAdvancedTest 의 네 가지 DTO 프로젝션 방식과 생성 매퍼 record 프로젝션으로 memberCount 건을 조회한다.
+ * -prof gc 결과의 gc.alloc.rate.norm 으로 행당 할당량을 비교한다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionBenchmark {
+
+	@Param({"10000"})
+	public int memberCount;
+
+	private ConfigurableApplicationContext context;
+
+	private TransactionTemplate transactionTemplate;
+
+	private JPAQueryFactory queryFactory;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start(memberCount, 10);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		transactionTemplate.setReadOnly(true);
+		queryFactory = context.getBean(JPAQueryFactory.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<MemberDto> bean() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(Projections.bean(MemberDto.class, member.username, member.age))
+			.from(member)
+			.fetch());
+	}
+
+	@Benchmark
+	public List<MemberDto> fields() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(Projections.fields(MemberDto.class, member.username, member.age))
+			.from(member)
+			.fetch());
+	}
+
+	@Benchmark
+	public List<MemberDto> constructor() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(Projections.constructor(MemberDto.class, member.username, member.age))
+			.from(member)
+			.fetch());
+	}
+
+	@Benchmark
+	public List<MemberDto> queryProjection() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(new QMemberDto(member.username, member.age))
+			.from(member)
+			.fetch());
+	}
+
+	@Benchmark
+	public List<MemberRecord> generatedRecord() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(MemberRecordMapper.projection(member.username, member.age))
+			.from(member)
+			.fetch());
+	}
+}
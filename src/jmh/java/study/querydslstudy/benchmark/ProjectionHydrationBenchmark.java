@@ -0,0 +1,63 @@
+package study.querydslstudy.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.dto.MemberTeamRecord;
+import study.querydslstudy.dto.MemberTeamRecordMapper;
+import study.querydslstudy.dto.QMemberTeamDto;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydslstudy.entity.QMember.member;
+import static study.querydslstudy.entity.QTeam.team;
+
+/**
+ * DB 없이 select 결과 행(Object[])을 DTO 로 바꾸는 비용만 잰다.
+ * QMemberTeamDto 는 Constructor.newInstance(리플렉션), 생성 매퍼는 생성자 직접 호출이다.
+ * 행 배열은 미리 만들어 두므로 gc.alloc.rate.norm 은 변환 자체의 할당량이다(ops = 행 수).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionHydrationBenchmark {
+
+	private static final int ROWS = 1024;
+
+	private final FactoryExpression<MemberTeamDto> queryProjection =
+		new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name);
+
+	private final FactoryExpression<MemberTeamRecord> generatedProjection =
+		MemberTeamRecordMapper.projection(member.id, member.username, member.age, team.id, team.name);
+
+	private Object[][] rows;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		// Hibernate 가 돌려주는 것과 같은 박싱된 값
+		rows = new Object[ROWS][];
+		for(int i = 0; i < ROWS; i++) {
+			rows[i] = new Object[] {(long) i + 1000, "member" + i, Integer.valueOf(i % 200), (long) i % 10, "team" + i % 10};
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void queryProjection(Blackhole blackhole) {
+		for(Object[] row : rows) {
+			blackhole.consume(queryProjection.newInstance(row));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public void generatedProjection(Blackhole blackhole) {
+		for(Object[] row : rows) {
+			blackhole.consume(generatedProjection.newInstance(row));
+		}
+	}
+}
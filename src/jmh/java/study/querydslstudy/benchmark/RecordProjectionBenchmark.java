@@ -0,0 +1,80 @@
+package study.querydslstudy.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.dto.MemberTeamRecord;
+import study.querydslstudy.dto.MemberTeamRecordMapper;
+import study.querydslstudy.dto.QMemberTeamDto;
+import study.querydslstudy.repository.MemberTeamViewRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydslstudy.entity.QMember.member;
+import static study.querydslstudy.entity.QTeam.team;
+
+/**
+ * member + team 전체 조회: @QueryProjection(QMemberTeamDto), 생성 매퍼 projection, 생성 RowMapper(JDBC, member_team_view) 비교.
+ * gc.alloc.rate.norm 을 memberCount 로 나누면 행당 할당량이다. 조회 없이 변환만 재는 것은 ProjectionHydrationBenchmark.
+ * 실행: ./gradlew jmh -PjmhArgs="RecordProjection -p memberCount=100000"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RecordProjectionBenchmark {
+
+	@Param({"10000"})
+	public int memberCount;
+
+	private ConfigurableApplicationContext context;
+
+	private TransactionTemplate transactionTemplate;
+
+	private JPAQueryFactory queryFactory;
+
+	private MemberTeamViewRepository memberTeamViewRepository;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start(memberCount, 10);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		transactionTemplate.setReadOnly(true);
+		queryFactory = context.getBean(JPAQueryFactory.class);
+		memberTeamViewRepository = context.getBean(MemberTeamViewRepository.class);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> queryProjection() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+			.from(member)
+			.leftJoin(member.team, team)
+			.fetch());
+	}
+
+	@Benchmark
+	public List<MemberTeamRecord> generatedProjection() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(MemberTeamRecordMapper.projection(member.id, member.username, member.age, team.id, team.name))
+			.from(member)
+			.leftJoin(member.team, team)
+			.fetch());
+	}
+
+	@Benchmark
+	public List<MemberTeamRecord> generatedRowMapper() {
+		return memberTeamViewRepository.findRecords(0, memberCount);
+	}
+}
@@ -0,0 +1,76 @@
+package study.querydslstudy.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.repository.MemberJpaRepository;
+import study.querydslstudy.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 내장 H2 에 memberCount 건을 적재한 뒤 세 가지 검색 경로를 end-to-end 로 실행한다.
+ * 실행: ./gradlew jmh -PjmhArgs="SearchExecution -p memberCount=100000"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SearchExecutionBenchmark {
+
+	@Param({"10000"})
+	public int memberCount;
+
+	@Param({"100"})
+	public int teamCount;
+
+	private ConfigurableApplicationContext context;
+
+	private TransactionTemplate transactionTemplate;
+
+	private MemberJpaRepository memberJpaRepository;
+
+	private MemberRepository memberRepository;
+
+	private MemberSearchCondition condition;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start(memberCount, teamCount);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		transactionTemplate.setReadOnly(true);
+		memberJpaRepository = context.getBean(MemberJpaRepository.class);
+		memberRepository = context.getBean(MemberRepository.class);
+
+		condition = new MemberSearchCondition();
+		condition.setTeamName("team7");
+		condition.setAgeGoe(30);
+		condition.setAgeLoe(35);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> searchByBuilder() {
+		return transactionTemplate.execute(status -> memberJpaRepository.searchByBuilder(condition));
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> searchByWhereParam() {
+		return transactionTemplate.execute(status -> memberJpaRepository.searchByWhereParam(condition));
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> search() {
+		return transactionTemplate.execute(status -> memberRepository.search(condition));
+	}
+}
@@ -0,0 +1,124 @@
+package study.querydslstudy.benchmark;
+
+import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.util.StringUtils;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.dto.QMemberTeamDto;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydslstudy.entity.QMember.member;
+import static study.querydslstudy.entity.QTeam.team;
+
+/**
+ * DB 없이 동적 쿼리 조립(BooleanBuilder vs where 파라미터)과 JPQL 렌더링 비용만 측정한다.
+ * 조립 코드는 MemberJpaRepository.searchByBuilder / searchByWhereParam 과 동일하다.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class SearchQueryBuildBenchmark {
+
+	@Param({"all", "none", "teamName"})
+	public String shape;
+
+	private MemberSearchCondition condition;
+
+	@Setup
+	public void setUp() {
+		condition = new MemberSearchCondition();
+		if("all".equals(shape)) {
+			condition.setUsername("member31");
+			condition.setTeamName("teamB");
+			condition.setAgeGoe(31);
+			condition.setAgeLoe(35);
+		}
+		else if("teamName".equals(shape)) {
+			condition.setTeamName("teamB");
+		}
+	}
+
+	@Benchmark
+	public JPAQuery<MemberTeamDto> buildByBuilder() {
+		return byBuilder(condition);
+	}
+
+	@Benchmark
+	public JPAQuery<MemberTeamDto> buildByWhereParam() {
+		return byWhereParam(condition);
+	}
+
+	@Benchmark
+	public String renderByBuilder() {
+		return byBuilder(condition).toString();
+	}
+
+	@Benchmark
+	public String renderByWhereParam() {
+		return byWhereParam(condition).toString();
+	}
+
+	private static JPAQuery<MemberTeamDto> byBuilder(MemberSearchCondition condition) {
+		BooleanBuilder builder = new BooleanBuilder();
+
+		if(StringUtils.hasText(condition.getUsername())) {
+			builder.and(member.username.eq(condition.getUsername()));
+		}
+
+		if(StringUtils.hasText(condition.getTeamName())) {
+			builder.and(team.name.eq(condition.getTeamName()));
+		}
+
+		if(condition.getAgeGoe() != null) {
+			builder.and(member.age.goe(condition.getAgeGoe()));
+		}
+
+		if(condition.getAgeLoe() != null) {
+			builder.and(member.age.loe(condition.getAgeLoe()));
+		}
+
+		return new JPAQuery<Void>()
+			.select(projection())
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(builder);
+	}
+
+	private static JPAQuery<MemberTeamDto> byWhereParam(MemberSearchCondition condition) {
+		return new JPAQuery<Void>()
+			.select(projection())
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(
+				StringUtils.hasText(condition.getUsername()) ? member.username.eq(condition.getUsername()) : null,
+				StringUtils.hasText(condition.getTeamName()) ? team.name.eq(condition.getTeamName()) : null,
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe())
+			);
+	}
+
+	private static QMemberTeamDto projection() {
+		return new QMemberTeamDto(
+			member.id.as("memberId"),
+			member.username,
+			member.age,
+			team.id.as("teamId"),
+			team.name.as("teamName")
+		);
+	}
+
+	private static BooleanExpression ageGoe(Integer ageGoe) {
+		return ageGoe != null ? member.age.goe(ageGoe) : null;
+	}
+
+	private static BooleanExpression ageLoe(Integer ageLoe) {
+		return ageLoe != null ? member.age.loe(ageLoe) : null;
+	}
+}
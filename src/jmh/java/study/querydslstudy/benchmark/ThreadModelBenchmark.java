@@ -0,0 +1,65 @@
+package study.querydslstudy.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 부하(64 스레드 동시 요청)에서 플랫폼 스레드와 가상 스레드 모드의 /v3/members 처리량과 지연 분포를 비교한다.
+ * SampleTime 모드 결과에서 p0.50, p0.99 를 비교한다.
+ * 실행: ./gradlew jmh -PjmhArgs="ThreadModel -p memberCount=100000"
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(64)
+@State(Scope.Benchmark)
+public class ThreadModelBenchmark {
+
+	@Param({"false", "true"})
+	public boolean virtualThreads;
+
+	@Param({"10000"})
+	public int memberCount;
+
+	private ConfigurableApplicationContext context;
+
+	private HttpClient httpClient;
+
+	private URI uri;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.startWeb(memberCount, 100,
+			"--spring.threads.virtual.enabled=" + virtualThreads,
+			"--spring.datasource.hikari.maximum-pool-size=10",
+			"--member.admission.max-concurrent=10");
+		String port = context.getEnvironment().getProperty("local.server.port");
+
+		httpClient = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+		uri = URI.create("http://localhost:" + port + "/v3/members?teamName=team7&ageGoe=20&page=0&size=20");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public int searchMemberV3() throws IOException, InterruptedException {
+		HttpResponse<Void> response = httpClient.send(HttpRequest.newBuilder(uri).GET().build(),
+			HttpResponse.BodyHandlers.discarding());
+		return response.statusCode();
+	}
+}
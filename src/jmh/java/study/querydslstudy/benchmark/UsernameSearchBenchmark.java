@@ -0,0 +1,104 @@
+package study.querydslstudy.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.dto.QMemberTeamDto;
+import study.querydslstudy.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static study.querydslstudy.entity.QMember.member;
+import static study.querydslstudy.entity.QTeam.team;
+
+/**
+ * username 부분 문자열 검색: like '%x%' 전체 스캔과 trigram 인덱스로 후보를 좁힌 검색을 비교한다.
+ * seed 데이터의 username 은 "member" + 번호이므로 term 은 번호 일부로 준다.
+ * 실행: ./gradlew jmh -PjmhArgs="UsernameSearch -p memberCount=1000000"
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UsernameSearchBenchmark {
+
+	@Param({"100000"})
+	public int memberCount;
+
+	@Param({"100"})
+	public int teamCount;
+
+	@Param({"4567", "r9999"})
+	public String term;
+
+	private ConfigurableApplicationContext context;
+
+	private TransactionTemplate transactionTemplate;
+
+	private JPAQueryFactory queryFactory;
+
+	private MemberRepository memberRepository;
+
+	private MemberSearchCondition containsCondition;
+
+	private MemberSearchCondition prefixCondition;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		context = BenchmarkContext.start(memberCount, teamCount);
+		transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+		transactionTemplate.setReadOnly(true);
+		queryFactory = context.getBean(JPAQueryFactory.class);
+		memberRepository = context.getBean(MemberRepository.class);
+
+		containsCondition = new MemberSearchCondition();
+		containsCondition.setUsername(term);
+		containsCondition.setUsernameMatch(MemberSearchCondition.UsernameMatch.CONTAINS);
+
+		prefixCondition = new MemberSearchCondition();
+		prefixCondition.setUsername("member" + term.replaceAll("\\D", ""));
+		prefixCondition.setUsernameMatch(MemberSearchCondition.UsernameMatch.PREFIX);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		context.close();
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> containsLikeScan() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(member.username.contains(term))
+			.fetch());
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> containsTrigram() {
+		return transactionTemplate.execute(status -> memberRepository.search(containsCondition));
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> prefixLike() {
+		return transactionTemplate.execute(status -> queryFactory
+			.select(new QMemberTeamDto(member.id, member.username, member.age, team.id, team.name))
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(member.username.startsWith(prefixCondition.getUsername()))
+			.fetch());
+	}
+
+	@Benchmark
+	public List<MemberTeamDto> prefixRange() {
+		return transactionTemplate.execute(status -> memberRepository.search(prefixCondition));
+	}
+}
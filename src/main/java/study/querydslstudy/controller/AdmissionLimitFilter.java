@@ -0,0 +1,111 @@
+package study.querydslstudy.controller;
+
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 가상 스레드는 요청 수만큼 만들어지므로 커넥션 풀보다 많은 요청이 동시에 커넥션을 기다리게 된다.
+ * 동시에 처리하는 요청 수를 세마포어로 제한하고, 제한 시간 안에 자리가 나지 않으면 503 으로 돌려보낸다.
+ * 스케줄러, 백그라운드 적재 등 요청 밖의 작업도 같은 풀을 쓰므로 기본값은 풀 크기에서 reserved-connections 를 뺀 값이다.
+ */
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class AdmissionLimitFilter extends OncePerRequestFilter {
+
+	private final Semaphore permits;
+
+	private final long acquireTimeoutNanos;
+
+	public AdmissionLimitFilter(@Value("${member.admission.max-concurrent:0}") int maxConcurrent,
+								@Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+								@Value("${member.admission.reserved-connections:2}") int reservedConnections,
+								@Value("${member.admission.acquire-timeout:2s}") Duration acquireTimeout) {
+		if(maxConcurrent < 1) {
+			maxConcurrent = Math.max(poolSize - reservedConnections, 1);
+		}
+		this.permits = new Semaphore(maxConcurrent, true);
+		this.acquireTimeoutNanos = acquireTimeout.toNanos();
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return request.getRequestURI().startsWith("/actuator");
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+		throws ServletException, IOException {
+
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS);
+		}
+		catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			acquired = false;
+		}
+
+		if(!acquired) {
+			response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "too many concurrent requests");
+			return;
+		}
+
+		AtomicBoolean released = new AtomicBoolean();
+		Runnable release = () -> {
+			if(released.compareAndSet(false, true)) {
+				permits.release();
+			}
+		};
+		try {
+			filterChain.doFilter(request, response);
+		}
+		finally {
+			// StreamingResponseBody 같은 비동기 응답은 doFilter 가 돌아온 뒤에도 커넥션을 쓰므로 응답이 끝날 때 반납한다
+			if(request.isAsyncStarted()) {
+				request.getAsyncContext().addListener(new ReleaseOnComplete(release));
+			}
+			else {
+				release.run();
+			}
+		}
+	}
+
+	private record ReleaseOnComplete(Runnable release) implements AsyncListener {
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			release.run();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			release.run();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			release.run();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			// 다시 비동기로 시작하면 리스너를 새 AsyncContext 에 다시 건다
+			event.getAsyncContext().addListener(this);
+		}
+	}
+}
@@ -0,0 +1,19 @@
+package study.querydslstudy.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 검색 API 요청 파라미터(count 모드, 커서 등)가 잘못됨. 요청 오류이므로 400 으로 응답한다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSearchParameterException extends IllegalArgumentException {
+
+	public InvalidSearchParameterException(String message) {
+		super(message);
+	}
+
+	public InvalidSearchParameterException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
@@ -1,37 +1,204 @@
 package study.querydslstudy.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydslstudy.dto.CursorResult;
+import study.querydslstudy.dto.MemberCursor;
 import study.querydslstudy.dto.MemberSearchCondition;
 import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.repository.MemberDataVersion;
 import study.querydslstudy.repository.MemberJpaRepository;
 import study.querydslstudy.repository.MemberRepository;
+import study.querydslstudy.repository.UnsupportedSortException;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.List;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+	private static final Set<String> COUNT_MODES = Set.of("exact", "estimate");
+
+	private static final Set<String> CURSOR_SORTS = Set.of("id", "age");
+
 	private final MemberJpaRepository memberJpaRepository;
 
 	private final MemberRepository memberRepository;
 
+	private final ObjectMapper objectMapper;
+
+	private final MemberDataVersion memberDataVersion;
+
+	@Value("${member.datasource.routing.enabled:false}")
+	private boolean replicaRouting;
+
+	@Value("${member.search.concurrent-count:false}")
+	private boolean concurrentCount;
+
+	@Value("${member.search.timeout:5s}")
+	private Duration searchTimeout;
+
+	// exact | estimate
+	@Value("${member.count-estimate.default-mode:exact}")
+	private String defaultCountMode;
+
+	// v2, v3 의 Pageable 과 같은 상한. 넘으면 Pageable 처럼 상한으로 줄인다
+	@Value("${spring.data.web.pageable.max-page-size:2000}")
+	private int maxPageSize;
+
 	@GetMapping("/v1/members")
-	public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
+	public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition, WebRequest request) {
+		if(notModified(request, "v1", condition, Pageable.unpaged())) {
+			return null;
+		}
 		return memberJpaRepository.searchByWhereParam(condition);
 	}
 
+	@GetMapping(value = "/v1/members/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	public ResponseEntity<StreamingResponseBody> exportMemberV1(MemberSearchCondition condition) {
+		StreamingResponseBody body = out -> memberJpaRepository.forEachByWhereParam(condition, dto -> writeLine(out, dto));
+		return ResponseEntity.ok()
+			.contentType(MediaType.APPLICATION_NDJSON)
+			.body(body);
+	}
+
+	// 결과가 있는지만 필요한 화면용. count 대신 첫 행만 확인한다
+	@GetMapping("/v1/members/exists")
+	public boolean existsMemberV1(MemberSearchCondition condition) {
+		return memberRepository.existsByCondition(condition);
+	}
+
 	@GetMapping("/v2/members")
-	public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+	public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+		if(notModified(request, "v2", condition, pageable)) {
+			return null;
+		}
 		return memberRepository.searchPageSimple(condition, pageable);
 	}
 
 	@GetMapping("/v3/members")
-	public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+	public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable,
+											  @RequestParam(required = false) String count, WebRequest request) {
+		String countMode = count != null ? count : defaultCountMode;
+		if(!COUNT_MODES.contains(countMode)) {
+			throw new InvalidSearchParameterException("count 는 exact, estimate 중 하나여야 합니다: " + countMode);
+		}
+		if(notModified(request, "v3:" + countMode, condition, pageable)) {
+			return null;
+		}
+		if("estimate".equals(countMode)) {
+			return memberRepository.searchPageEstimated(condition, pageable);
+		}
+		if(concurrentCount) {
+			return memberRepository.searchPageConcurrent(condition, pageable, searchTimeout);
+		}
 		return memberRepository.searchPageComplex(condition, pageable);
 	}
-}
+
+	@GetMapping("/v4/members")
+	public CursorResult<MemberTeamDto> searchMemberV4(MemberSearchCondition condition,
+													  @RequestParam(required = false) String cursor,
+													  @RequestParam(defaultValue = "id") String sort,
+													  @RequestParam(defaultValue = "20") int size) {
+
+		if(size < 1) {
+			throw new InvalidSearchParameterException("size는 1 이상이어야 합니다.");
+		}
+		if(!CURSOR_SORTS.contains(sort)) {
+			throw new InvalidSearchParameterException("sort 는 id, age 중 하나여야 합니다: " + sort);
+		}
+		size = Math.min(size, maxPageSize);
+
+		boolean orderByAge = "age".equals(sort);
+		MemberCursor memberCursor;
+		try {
+			memberCursor = MemberCursor.decode(cursor);
+		}
+		catch(IllegalArgumentException e) {
+			throw new InvalidSearchParameterException(e.getMessage(), e);
+		}
+		// 다른 정렬에서 받은 커서면 위치를 잘못 해석하므로 거절한다
+		if(memberCursor != null && orderByAge != (memberCursor.getAge() != null)) {
+			throw new InvalidSearchParameterException("sort=" + sort + " 에 맞지 않는 커서입니다: " + cursor);
+		}
+
+		Slice<MemberTeamDto> slice = orderByAge
+			? memberRepository.searchByAgeCursor(condition, memberCursor, size)
+			: memberRepository.searchByIdCursor(condition, memberCursor, size);
+
+		String nextCursor = null;
+		if(slice.hasNext()) {
+			MemberTeamDto last = slice.getContent().get(slice.getNumberOfElements() - 1);
+			nextCursor = orderByAge
+				? MemberCursor.of(last.getAge(), last.getMemberId()).encode()
+				: MemberCursor.of(last.getMemberId()).encode();
+		}
+
+		return new CursorResult<>(slice.getContent(), nextCursor, slice.hasNext());
+	}
+
+	// v3 와 같은 검색을 비정규화 테이블(member_team_view)에서 join 없이 처리
+	@GetMapping("/v5/members")
+	public Page<MemberTeamDto> searchMemberV5(MemberSearchCondition condition, Pageable pageable, WebRequest request) {
+		if(notModified(request, "v5", condition, pageable)) {
+			return null;
+		}
+		return memberRepository.searchPageFromView(condition, pageable);
+	}
+
+	// 허용되는 값을 알 수 있도록 메시지를 응답 본문에 담는다
+	@ExceptionHandler({UnsupportedSortException.class, InvalidSearchParameterException.class})
+	public ProblemDetail badSearchParameter(IllegalArgumentException e) {
+		return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+	}
+
+	/**
+	 * ETag 와 Last-Modified 는 이 JVM 의 MemberDataVersion 에서 만든다.
+	 * 레플리카 라우팅을 쓰면 본문은 복제 지연이 있는 레플리카에서 읽으므로, 새 버전의 ETag 로 지난 본문이 캐시되어
+	 * 다음 쓰기까지 304 로 지난 데이터가 나갈 수 있다. 그래서 라우팅을 쓰는 동안에는 조건부 GET 을 하지 않는다.
+	 */
+	private boolean notModified(WebRequest request, String api, MemberSearchCondition condition, Pageable pageable) {
+		if(replicaRouting) {
+			return false;
+		}
+		return request.checkNotModified(etag(api, condition, pageable), memberDataVersion.getLastModified());
+	}
+
+	// 같은 데이터 버전, 같은 검색 조건, 같은 페이지 요청이면 응답 본문도 같으므로 strong ETag 로 쓴다
+	private String etag(String api, MemberSearchCondition condition, Pageable pageable) {
+		String key = api + "|" + memberDataVersion.getEpoch() + "|" + memberDataVersion.getVersion()
+			+ "|" + condition.normalize() + "|" + pageable;
+		return "\"" + DigestUtils.md5DigestAsHex(key.getBytes(StandardCharsets.UTF_8)) + "\"";
+	}
+
+	private void writeLine(OutputStream out, MemberTeamDto dto) {
+		try {
+			out.write(objectMapper.writeValueAsBytes(dto));
+			out.write('\n');
+		}
+		catch(IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package study.querydslstudy.controller;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "seed")
+public class MemberSeedProperties {
+
+	private long members = 1_000_000;
+
+	private int teams = 1_000;
+
+	// 팀 크기 분포의 Zipf 지수 (0 이면 균등 분포)
+	private double teamSkew = 1.0;
+
+	private AgeDistribution ageDistribution = AgeDistribution.UNIFORM;
+
+	private int ageMin = 0;
+
+	private int ageMax = 100;
+
+	private double ageMean = 35;
+
+	private double ageStddev = 12;
+
+	private long randomSeed = 42;
+
+	private int batchSize = 1_000;
+
+	private long progressInterval = 100_000;
+
+	public enum AgeDistribution {
+		UNIFORM, NORMAL
+	}
+}
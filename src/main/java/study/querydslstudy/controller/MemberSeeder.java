@@ -0,0 +1,118 @@
+package study.querydslstudy.controller;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.Team;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * 대량 테스트 데이터 적재. seed 프로파일로 실행한다.
+ * ./gradlew bootRun --args='--spring.profiles.active=seed --seed.members=10000000 --seed.teams=5000'
+ */
+@Slf4j
+@Profile("seed")
+@Component
+@EnableConfigurationProperties(MemberSeedProperties.class)
+public class MemberSeeder implements ApplicationRunner {
+
+	@PersistenceContext
+	private EntityManager em;
+
+	private final MemberSeedProperties properties;
+
+	private final TransactionTemplate transactionTemplate;
+
+	public MemberSeeder(MemberSeedProperties properties, PlatformTransactionManager transactionManager) {
+		this.properties = properties;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		SplittableRandom random = new SplittableRandom(properties.getRandomSeed());
+		long[] teamIds = transactionTemplate.execute(status -> persistTeams());
+		double[] teamCdf = zipfCdf(properties.getTeams(), properties.getTeamSkew());
+
+		long total = properties.getMembers();
+		int batchSize = properties.getBatchSize();
+		long started = System.nanoTime();
+		long nextReport = properties.getProgressInterval();
+
+		for(long from = 0; from < total; from += batchSize) {
+			long to = Math.min(from + batchSize, total);
+			long start = from;
+			transactionTemplate.executeWithoutResult(status -> persistMembers(start, to, teamIds, teamCdf, random));
+
+			if(to >= nextReport || to == total) {
+				double seconds = (System.nanoTime() - started) / 1_000_000_000.0;
+				log.info("seed members {}/{} ({} rows/s)", to, total, Math.round(to / seconds));
+				nextReport += properties.getProgressInterval();
+			}
+		}
+	}
+
+	private long[] persistTeams() {
+		long[] teamIds = new long[properties.getTeams()];
+		for(int i = 0; i < teamIds.length; i++) {
+			Team team = new Team("team" + i);
+			em.persist(team);
+			teamIds[i] = team.getId();
+		}
+		em.flush();
+		em.clear();
+		return teamIds;
+	}
+
+	private void persistMembers(long from, long to, long[] teamIds, double[] teamCdf, SplittableRandom random) {
+		em.unwrap(Session.class).setJdbcBatchSize(properties.getBatchSize());
+
+		for(long i = from; i < to; i++) {
+			Team team = em.getReference(Team.class, teamIds[sampleTeam(teamCdf, random)]);
+			em.persist(new Member("member" + i, sampleAge(random), team));
+		}
+		em.flush();
+		em.clear();
+	}
+
+	private int sampleTeam(double[] cdf, SplittableRandom random) {
+		int index = Arrays.binarySearch(cdf, random.nextDouble());
+		return index >= 0 ? index : Math.min(-index - 1, cdf.length - 1);
+	}
+
+	private int sampleAge(SplittableRandom random) {
+		int min = properties.getAgeMin();
+		int max = properties.getAgeMax();
+
+		if(properties.getAgeDistribution() == MemberSeedProperties.AgeDistribution.NORMAL) {
+			long age = Math.round(properties.getAgeMean() + properties.getAgeStddev() * random.nextGaussian());
+			return (int) Math.max(min, Math.min(max, age));
+		}
+		return random.nextInt(min, max + 1);
+	}
+
+	// rank k 의 가중치 1 / k^s 로 누적 분포를 만든다
+	private static double[] zipfCdf(int n, double exponent) {
+		double[] cdf = new double[n];
+		double sum = 0;
+		for(int k = 0; k < n; k++) {
+			sum += 1.0 / Math.pow(k + 1, exponent);
+			cdf[k] = sum;
+		}
+		for(int k = 0; k < n; k++) {
+			cdf[k] /= sum;
+		}
+		return cdf;
+	}
+}
@@ -0,0 +1,34 @@
+package study.querydslstudy.controller;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import study.querydslstudy.repository.QueryCounter;
+
+import java.io.IOException;
+
+@Component
+@ConditionalOnProperty(name = "query-counter.n-plus-one.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class QueryCountFilter extends OncePerRequestFilter {
+
+	private final QueryCounter queryCounter;
+
+	@Value("${query-counter.n-plus-one.threshold:5}")
+	private int threshold;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+		throws ServletException, IOException {
+
+		try(QueryCounter.Scope scope = queryCounter.start(threshold)) {
+			filterChain.doFilter(request, response);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package study.querydslstudy.controller;
+
+import io.micrometer.common.KeyValues;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.server.observation.DefaultServerRequestObservationConvention;
+import org.springframework.http.server.observation.ServerRequestObservationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * http.server.requests 에 검색 조건 형태(search.shape) 태그를 추가한다.
+ * 값이 아니라 어떤 조건이 채워졌는지만 태그로 쓰므로 최대 16가지 값만 생긴다.
+ */
+@Component
+public class SearchShapeObservationConvention extends DefaultServerRequestObservationConvention {
+
+	private static final String[] CONDITION_PARAMS = {"username", "teamName", "ageGoe", "ageLoe"};
+
+	@Override
+	public KeyValues getLowCardinalityKeyValues(ServerRequestObservationContext context) {
+		return super.getLowCardinalityKeyValues(context).and("search.shape", shapeOf(context.getCarrier()));
+	}
+
+	private static String shapeOf(HttpServletRequest request) {
+		StringBuilder shape = new StringBuilder();
+		for(String param : CONDITION_PARAMS) {
+			if(StringUtils.hasText(request.getParameter(param))) {
+				if(!shape.isEmpty()) {
+					shape.append(',');
+				}
+				shape.append(param);
+			}
+		}
+		return shape.isEmpty() ? "none" : shape.toString();
+	}
+}
@@ -0,0 +1,22 @@
+package study.querydslstudy.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import study.querydslstudy.dto.TeamStatsDto;
+import study.querydslstudy.repository.TeamStatsRepository;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class TeamController {
+
+	private final TeamStatsRepository teamStatsRepository;
+
+	// 팀별 회원 수, 나이 합계/평균/최소/최대. 요약 테이블만 읽으므로 팀 수에 비례한다
+	@GetMapping("/v1/teams/stats")
+	public List<TeamStatsDto> teamStats() {
+		return teamStatsRepository.findAll();
+	}
+}
@@ -0,0 +1,37 @@
+package study.querydslstudy.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+/**
+ * 라우팅 데이터소스와 그 아래 커넥션 풀을 소유하고, 주기적으로 레플리카 상태와 복제 지연을 확인한다.
+ * DataSource 타입 빈이 아니므로 p6spy 데코레이터가 풀마다 중복으로 감싸지 않는다.
+ */
+public class ReplicaHealthChecker implements DisposableBean {
+
+	private final ReplicaRoutingDataSource routingDataSource;
+
+	private final List<HikariDataSource> pools;
+
+	public ReplicaHealthChecker(ReplicaRoutingDataSource routingDataSource, List<HikariDataSource> pools) {
+		this.routingDataSource = routingDataSource;
+		this.pools = pools;
+	}
+
+	public ReplicaRoutingDataSource getRoutingDataSource() {
+		return routingDataSource;
+	}
+
+	@Scheduled(fixedDelayString = "${member.datasource.health-check-interval-ms:5000}")
+	public void check() {
+		routingDataSource.checkReplicas();
+	}
+
+	@Override
+	public void destroy() {
+		pools.forEach(HikariDataSource::close);
+	}
+}
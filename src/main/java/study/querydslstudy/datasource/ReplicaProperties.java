@@ -0,0 +1,37 @@
+package study.querydslstudy.datasource;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "member.datasource")
+public class ReplicaProperties {
+
+	private List<Replica> replicas = new ArrayList<>();
+
+	// 레플리카에서 실행해서 복제 지연(초)을 돌려주는 쿼리. 비어 있으면 지연은 확인하지 않는다
+	private String lagQuery;
+
+	private Duration maxLag = Duration.ofSeconds(10);
+
+	private Duration validationTimeout = Duration.ofSeconds(2);
+
+	@Getter
+	@Setter
+	public static class Replica {
+
+		private String url;
+
+		private String username;
+
+		private String password;
+
+		private int maximumPoolSize = 10;
+	}
+}
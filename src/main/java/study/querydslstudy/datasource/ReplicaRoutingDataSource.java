@@ -0,0 +1,115 @@
+package study.querydslstudy.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 읽기 전용 트랜잭션은 정상 상태인 레플리카로 라운드 로빈, 그 밖의 요청은 primary 로 보낸다.
+ * 정상 레플리카가 없으면 primary 로 보낸다.
+ * 트랜잭션의 readOnly 값은 커넥션을 얻은 뒤에 설정되므로 LazyConnectionDataSourceProxy 로 감싸서 사용해야 한다.
+ * 쓰기 직후에도 고정(pin)하지 않으므로 읽기 전용 트랜잭션은 최대 max-lag 만큼 이전 데이터를 볼 수 있다.
+ * 방금 쓴 값을 바로 읽어야 하는 곳은 readOnly 가 아닌 트랜잭션으로 읽어서 primary 로 보낸다.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+
+	private final Map<String, DataSource> replicas;
+
+	private final ReplicaProperties properties;
+
+	private final Set<String> healthyReplicas = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger next = new AtomicInteger();
+
+	public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, ReplicaProperties properties) {
+		this.replicas = new LinkedHashMap<>(replicas);
+		this.properties = properties;
+
+		Map<Object, Object> targets = new HashMap<>(replicas);
+		targets.put(PRIMARY, primary);
+		setTargetDataSources(targets);
+		setDefaultTargetDataSource(primary);
+
+		healthyReplicas.addAll(replicas.keySet());
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		if(!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return PRIMARY;
+		}
+
+		List<String> candidates = new ArrayList<>();
+		for(String key : replicas.keySet()) {
+			if(healthyReplicas.contains(key)) {
+				candidates.add(key);
+			}
+		}
+		if(candidates.isEmpty()) {
+			return PRIMARY;
+		}
+		return candidates.get(Math.floorMod(next.getAndIncrement(), candidates.size()));
+	}
+
+	public List<String> getReplicaKeys() {
+		return List.copyOf(replicas.keySet());
+	}
+
+	public Set<String> getHealthyReplicas() {
+		return Set.copyOf(healthyReplicas);
+	}
+
+	public void markHealthy(String key, boolean healthy) {
+		boolean changed = healthy ? healthyReplicas.add(key) : healthyReplicas.remove(key);
+		if(changed) {
+			log.warn("replica {} -> {}", key, healthy ? "UP" : "DOWN");
+		}
+	}
+
+	public void checkReplicas() {
+		for(Map.Entry<String, DataSource> replica : replicas.entrySet()) {
+			markHealthy(replica.getKey(), isHealthy(replica.getValue()));
+		}
+	}
+
+	private boolean isHealthy(DataSource dataSource) {
+		try(Connection connection = dataSource.getConnection()) {
+			if(!connection.isValid((int) Math.max(properties.getValidationTimeout().toSeconds(), 1))) {
+				return false;
+			}
+			if(!StringUtils.hasText(properties.getLagQuery())) {
+				return true;
+			}
+
+			try(Statement statement = connection.createStatement();
+				ResultSet rs = statement.executeQuery(properties.getLagQuery())) {
+				if(!rs.next()) {
+					return false;
+				}
+				double lagSeconds = rs.getDouble(1);
+				return !rs.wasNull() && lagSeconds * 1000 <= properties.getMaxLag().toMillis();
+			}
+		}
+		catch(Exception e) {
+			log.debug("replica health check failed", e);
+			return false;
+		}
+	}
+}
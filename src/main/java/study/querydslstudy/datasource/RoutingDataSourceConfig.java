@@ -0,0 +1,97 @@
+package study.querydslstudy.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * member.datasource.routing.enabled=true 이면 spring.datasource 를 primary 로,
+ * member.datasource.replicas 를 읽기 전용 트랜잭션용 레플리카로 사용한다.
+ * 풀이 DataSource 빈이 아니어서 스프링 부트가 hikaricp 지표와 db 헬스 체크를 붙이지 않으므로 여기서 직접 붙인다.
+ */
+@Configuration
+@EnableConfigurationProperties(ReplicaProperties.class)
+@ConditionalOnProperty(name = "member.datasource.routing.enabled", havingValue = "true")
+public class RoutingDataSourceConfig {
+
+	@Bean
+	ReplicaHealthChecker replicaHealthChecker(DataSourceProperties dataSourceProperties,
+											  ReplicaProperties replicaProperties,
+											  Environment environment,
+											  ObjectProvider<MeterRegistry> meterRegistry) {
+
+		List<HikariDataSource> pools = new ArrayList<>();
+
+		HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder()
+			.type(HikariDataSource.class)
+			.build();
+		Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+		primary.setPoolName("primary");
+		pools.add(primary);
+
+		Map<String, DataSource> replicas = new LinkedHashMap<>();
+		List<ReplicaProperties.Replica> replicaList = replicaProperties.getReplicas();
+		for(int i = 0; i < replicaList.size(); i++) {
+			ReplicaProperties.Replica replica = replicaList.get(i);
+			HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+				.type(HikariDataSource.class)
+				.url(replica.getUrl())
+				.username(replica.getUsername())
+				.password(replica.getPassword())
+				.build();
+			dataSource.setPoolName("replica-" + i);
+			dataSource.setMaximumPoolSize(replica.getMaximumPoolSize());
+			dataSource.setReadOnly(true);
+			pools.add(dataSource);
+			replicas.put("replica-" + i, dataSource);
+		}
+
+		// hikaricp.connections.* 지표(acquire 히스토그램 포함)에 pool=primary, replica-N 으로 나온다. 풀이 시작되기 전에 설정해야 한다
+		meterRegistry.ifAvailable(registry -> pools.forEach(pool ->
+			pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry))));
+
+		ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(primary, replicas, replicaProperties);
+		routingDataSource.afterPropertiesSet();
+		return new ReplicaHealthChecker(routingDataSource, pools);
+	}
+
+	@Bean
+	@Primary
+	DataSource dataSource(ReplicaHealthChecker replicaHealthChecker) {
+		return new LazyConnectionDataSourceProxy(replicaHealthChecker.getRoutingDataSource());
+	}
+
+	// primary 는 위 dataSource 빈의 db 헬스 체크로 확인된다. 레플리카는 장애 시 primary 로 대체되므로 DOWN 으로 올리지 않고 상태만 보여 준다
+	@Bean
+	HealthIndicator replicasHealthIndicator(ReplicaHealthChecker replicaHealthChecker) {
+		return () -> {
+			ReplicaRoutingDataSource routingDataSource = replicaHealthChecker.getRoutingDataSource();
+			Map<String, String> replicas = new LinkedHashMap<>();
+			Set<String> healthy = routingDataSource.getHealthyReplicas();
+			for(String key : routingDataSource.getReplicaKeys()) {
+				replicas.put(key, healthy.contains(key) ? "UP" : "DOWN");
+			}
+			return Health.up().withDetails(replicas).build();
+		};
+	}
+}
@@ -0,0 +1,20 @@
+package study.querydslstudy.dto;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+public class CountedPage<T> extends PageImpl<T> {
+
+	private final boolean totalExact;
+
+	public CountedPage(List<T> content, Pageable pageable, long total, boolean totalExact) {
+		super(content, pageable, total);
+		this.totalExact = totalExact;
+	}
+
+	public boolean isTotalExact() {
+		return totalExact;
+	}
+}
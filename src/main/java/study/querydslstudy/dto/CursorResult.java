@@ -0,0 +1,21 @@
+package study.querydslstudy.dto;
+
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+public class CursorResult<T> {
+
+	private final List<T> content;
+
+	private final String nextCursor;
+
+	private final boolean hasNext;
+
+	public CursorResult(List<T> content, String nextCursor, boolean hasNext) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+		this.hasNext = hasNext;
+	}
+}
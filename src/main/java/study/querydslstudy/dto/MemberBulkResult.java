@@ -0,0 +1,28 @@
+package study.querydslstudy.dto;
+
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.Duration;
+
+@Getter
+@ToString
+public class MemberBulkResult {
+
+	private final long rows;
+
+	private final int chunks;
+
+	private final Duration elapsed;
+
+	public MemberBulkResult(long rows, int chunks, Duration elapsed) {
+		this.rows = rows;
+		this.chunks = chunks;
+		this.elapsed = elapsed;
+	}
+
+	public double getRowsPerSecond() {
+		long nanos = elapsed.toNanos();
+		return nanos == 0 ? 0 : rows * 1_000_000_000.0 / nanos;
+	}
+}
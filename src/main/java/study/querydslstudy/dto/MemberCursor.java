@@ -0,0 +1,55 @@
+package study.querydslstudy.dto;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class MemberCursor {
+
+	private static final String SEPARATOR = ":";
+
+	private final Integer age;
+
+	private final Long memberId;
+
+	public static MemberCursor of(Long memberId) {
+		return new MemberCursor(null, memberId);
+	}
+
+	public static MemberCursor of(Integer age, Long memberId) {
+		return new MemberCursor(age, memberId);
+	}
+
+	public static MemberCursor decode(String token) {
+		if(!StringUtils.hasText(token)) {
+			return null;
+		}
+
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+			String[] parts = raw.split(SEPARATOR);
+			if(parts.length == 1) {
+				return of(Long.valueOf(parts[0]));
+			}
+			if(parts.length == 2) {
+				return of(Integer.valueOf(parts[0]), Long.valueOf(parts[1]));
+			}
+		}
+		catch(IllegalArgumentException e) {
+			throw new IllegalArgumentException("잘못된 커서입니다: " + token, e);
+		}
+
+		throw new IllegalArgumentException("잘못된 커서입니다: " + token);
+	}
+
+	public String encode() {
+		String raw = age == null ? String.valueOf(memberId) : age + SEPARATOR + memberId;
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+}
@@ -0,0 +1,10 @@
+package study.querydslstudy.dto;
+
+import study.querydslstudy.mapper.RowProjection;
+
+/**
+ * MemberDto 의 불변 버전. 매퍼(MemberRecordMapper)는 컴파일 시 생성된다.
+ */
+@RowProjection
+public record MemberRecord(String username, int age) {
+}
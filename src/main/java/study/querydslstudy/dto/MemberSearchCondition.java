@@ -1,15 +1,38 @@
 package study.querydslstudy.dto;
 
 import lombok.Data;
+import org.springframework.util.StringUtils;
 
 @Data
 public class MemberSearchCondition {
 
 	private String username;
 
+	// username 비교 방식. null 이면 EXACT
+	private UsernameMatch usernameMatch;
+
 	private String teamName;
 
 	private Integer ageGoe;
 
 	private Integer ageLoe;
+
+	// 검색 조건 메서드(usernameMatches 등)와 같은 기준으로 빈 문자열은 조건 없음(null)으로 바꾼 사본
+	public MemberSearchCondition normalize() {
+		MemberSearchCondition normalized = new MemberSearchCondition();
+		normalized.setUsername(StringUtils.hasText(username) ? username : null);
+		normalized.setUsernameMatch(StringUtils.hasText(username) ? getUsernameMatchOrDefault() : null);
+		normalized.setTeamName(StringUtils.hasText(teamName) ? teamName : null);
+		normalized.setAgeGoe(ageGoe);
+		normalized.setAgeLoe(ageLoe);
+		return normalized;
+	}
+
+	public UsernameMatch getUsernameMatchOrDefault() {
+		return usernameMatch != null ? usernameMatch : UsernameMatch.EXACT;
+	}
+
+	public enum UsernameMatch {
+		EXACT, PREFIX, CONTAINS
+	}
 }
@@ -0,0 +1,10 @@
+package study.querydslstudy.dto;
+
+import study.querydslstudy.mapper.RowProjection;
+
+/**
+ * MemberTeamDto 의 불변 버전. 매퍼(MemberTeamRecordMapper)는 컴파일 시 생성된다.
+ */
+@RowProjection
+public record MemberTeamRecord(long memberId, String username, int age, Long teamId, String teamName) {
+}
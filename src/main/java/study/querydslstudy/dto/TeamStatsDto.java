@@ -0,0 +1,33 @@
+package study.querydslstudy.dto;
+
+import com.querydsl.core.annotations.QueryProjection;
+import lombok.Data;
+
+@Data
+public class TeamStatsDto {
+
+	private Long teamId;
+
+	private String teamName;
+
+	private long memberCount;
+
+	private long ageSum;
+
+	private Double ageAvg;
+
+	private Integer ageMin;
+
+	private Integer ageMax;
+
+	@QueryProjection
+	public TeamStatsDto(Long teamId, String teamName, Long memberCount, Long ageSum, Integer ageMin, Integer ageMax) {
+		this.teamId = teamId;
+		this.teamName = teamName;
+		this.memberCount = memberCount == null ? 0 : memberCount;
+		this.ageSum = ageSum == null ? 0 : ageSum;
+		this.ageAvg = this.memberCount == 0 ? null : (double) this.ageSum / this.memberCount;
+		this.ageMin = ageMin;
+		this.ageMax = ageMax;
+	}
+}
@@ -2,14 +2,27 @@ package study.querydslstudy.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import study.querydslstudy.repository.MemberChangeListener;
+
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
+@Table(indexes = {
+	@Index(name = "idx_member_username", columnList = "username"),
+	@Index(name = "idx_member_team_age", columnList = "team_id, age"),
+	@Index(name = "idx_member_age", columnList = "age")
+})
+@NamedEntityGraph(name = Member.GRAPH_WITH_TEAM, attributeNodes = @NamedAttributeNode("team"))
+@EntityListeners(MemberChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"})
 public class Member {
 
+	public static final String GRAPH_WITH_TEAM = "member-with-team";
+
 	@Id
 	@GeneratedValue
 	@Column(name = "member_id")
@@ -23,6 +36,18 @@ public class Member {
 	@JoinColumn(name = "team_id")
 	private Team team;
 
+	// username 의 trigram. setUsername 으로만 바뀌며 JPQL 벌크 update 는 MemberRepositoryImpl.bulkUpdate 가 다시 맞춘다
+	@ElementCollection
+	@CollectionTable(
+		name = UsernameTrigrams.TABLE,
+		joinColumns = @JoinColumn(name = "member_id"),
+		indexes = @Index(name = "idx_member_username_trigram", columnList = "trigram, member_id")
+	)
+	@Column(name = "trigram", nullable = false)
+	@Getter(AccessLevel.NONE)
+	@Setter(AccessLevel.NONE)
+	private Set<String> usernameTrigrams = new HashSet<>();
+
 	public Member(String username) {
 		this(username, 0);
 	}
@@ -32,13 +57,19 @@ public class Member {
 	}
 
 	public Member(String username, int age, Team team) {
-		this.username = username;
+		setUsername(username);
 		this.age = age;
 		if(team != null) {
 			this.team = team;
 		}
 	}
 
+	public void setUsername(String username) {
+		this.username = username;
+		usernameTrigrams.retainAll(UsernameTrigrams.of(username));
+		usernameTrigrams.addAll(UsernameTrigrams.of(username));
+	}
+
 	public void changeTeam(Team team) {
 		this.team = team;
 		team.getMembers().add(this);
@@ -0,0 +1,49 @@
+package study.querydslstudy.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+
+/**
+ * MemberTeamDto 컬럼만 가진 비정규화 조회 테이블 (member + team.name).
+ * MemberTeamViewListener 가 Hibernate 이벤트로 갱신하고 JPA 로는 읽기만 한다.
+ * member, team 에 flush 되지 않은 변경이 있으면 조회 전에 flush 되도록 @Synchronize 로 알려 준다.
+ */
+@Entity
+@Immutable
+@Synchronize({"member", "team"})
+@Table(name = MemberTeamView.TABLE, indexes = {
+	@Index(name = "idx_member_team_view_username", columnList = "username"),
+	@Index(name = "idx_member_team_view_team_name_age", columnList = "team_name, age"),
+	@Index(name = "idx_member_team_view_team_id", columnList = "team_id"),
+	@Index(name = "idx_member_team_view_age", columnList = "age")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class MemberTeamView {
+
+	public static final String TABLE = "member_team_view";
+
+	@Id
+	@Column(name = "member_id")
+	private Long memberId;
+
+	private String username;
+
+	private int age;
+
+	@Column(name = "team_id")
+	private Long teamId;
+
+	@Column(name = "team_name")
+	private String teamName;
+}
@@ -2,17 +2,31 @@ package study.querydslstudy.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import study.querydslstudy.repository.MemberChangeListener;
 
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Table(indexes = @Index(name = "idx_team_name", columnList = "name"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = Team.CACHE_REGION)
+@NamedEntityGraph(name = Team.GRAPH_WITH_MEMBERS, attributeNodes = @NamedAttributeNode("members"))
+@EntityListeners(MemberChangeListener.class)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team {
 
+	public static final String CACHE_REGION = "team";
+
+	public static final String NAME_QUERY_CACHE_REGION = "team-by-name";
+
+	public static final String GRAPH_WITH_MEMBERS = "team-with-members";
+
 	@Id
 	@GeneratedValue
 	@Column(name = "team_id")
@@ -20,6 +34,7 @@ public class Team {
 
 	private String name;
 
+	// mappedBy 쪽 컬렉션은 Member.team 변경 시 캐시가 무효화되지 않으므로 캐시하지 않는다
 	@OneToMany(mappedBy = "team")
 	private List<Member> members = new ArrayList<>();
 
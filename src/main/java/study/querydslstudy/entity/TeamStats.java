@@ -0,0 +1,36 @@
+package study.querydslstudy.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * 팀별 회원 나이 통계 요약. 회원 변경 시 TeamStatsListener 가 증분으로 갱신하고
+ * TeamStatsRepository.reconcile 이 전체 집계와 비교해서 보정한다. JPA 로는 읽기만 한다.
+ */
+@Entity
+@Immutable
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@ToString
+public class TeamStats {
+
+	public static final String TABLE = "team_stats";
+
+	@Id
+	@Column(name = "team_id")
+	private Long teamId;
+
+	private long memberCount;
+
+	private long ageSum;
+
+	private Integer minAge;
+
+	private Integer maxAge;
+}
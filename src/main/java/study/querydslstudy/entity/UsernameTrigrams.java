@@ -0,0 +1,28 @@
+package study.querydslstudy.entity;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * username 부분 문자열 검색(contains)용 trigram. 길이 3 미만인 문자열에는 trigram 이 없다.
+ */
+public final class UsernameTrigrams {
+
+	public static final String TABLE = "member_username_trigram";
+
+	public static final int LENGTH = 3;
+
+	private UsernameTrigrams() {
+	}
+
+	public static Set<String> of(String value) {
+		Set<String> trigrams = new LinkedHashSet<>();
+		if(value == null) {
+			return trigrams;
+		}
+		for(int i = 0; i + LENGTH <= value.length(); i++) {
+			trigrams.add(value.substring(i, i + LENGTH));
+		}
+		return trigrams;
+	}
+}
@@ -0,0 +1,32 @@
+package study.querydslstudy.repository;
+
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.proxy.HibernateProxy;
+import org.hibernate.proxy.LazyInitializer;
+import study.querydslstudy.entity.Team;
+
+// Hibernate 이벤트 리스너에서 엔티티 상태 배열을 읽는 도우미
+final class EntityStates {
+
+	private EntityStates() {
+	}
+
+	static Object stateOf(EntityPersister persister, Object[] state, String property) {
+		String[] names = persister.getPropertyNames();
+		for(int i = 0; i < names.length; i++) {
+			if(names[i].equals(property)) {
+				return state[i];
+			}
+		}
+		throw new IllegalStateException(persister.getEntityName() + " 에 " + property + " 속성이 없습니다.");
+	}
+
+	// 프록시를 초기화하지 않고 id 만 꺼낸다
+	static Long teamId(Object team) {
+		if(team == null) {
+			return null;
+		}
+		LazyInitializer lazyInitializer = HibernateProxy.extractLazyInitializer(team);
+		return lazyInitializer != null ? (Long) lazyInitializer.getInternalIdentifier() : ((Team) team).getId();
+	}
+}
@@ -0,0 +1,24 @@
+package study.querydslstudy.repository;
+
+import lombok.Getter;
+import study.querydslstudy.dto.MemberSearchCondition;
+
+import java.util.Set;
+
+// 엔티티 리스너를 거치지 않는 JPQL 벌크 연산 후 발행된다
+@Getter
+public class MemberBulkChangedEvent {
+
+	private final MemberSearchCondition condition;
+
+	private final long rows;
+
+	// 연산 전후로 청크 범위의 회원이 속했던 팀. 이 팀들의 집계만 다시 계산하면 된다
+	private final Set<Long> teamIds;
+
+	public MemberBulkChangedEvent(MemberSearchCondition condition, long rows, Set<Long> teamIds) {
+		this.condition = condition;
+		this.rows = rows;
+		this.teamIds = teamIds;
+	}
+}
@@ -0,0 +1,29 @@
+package study.querydslstudy.repository;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class MemberChangeListener {
+
+	private final MemberCountCache memberCountCache;
+
+	private final MemberDataVersion memberDataVersion;
+
+	// 인메모리 인덱스는 EntityManager 에 의존하므로 엔티티 리스너 생성 시점(EntityManagerFactory 초기화 중)에 주입받지 않는다
+	private final ObjectProvider<MemberMemoryIndex> memberMemoryIndex;
+
+	@PostPersist
+	@PostUpdate
+	@PostRemove
+	public void onChange(Object entity) {
+		memberCountCache.invalidateAll();
+		memberDataVersion.increment();
+		memberMemoryIndex.ifAvailable(MemberMemoryIndex::invalidate);
+	}
+}
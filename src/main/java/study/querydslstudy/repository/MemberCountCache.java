@@ -0,0 +1,141 @@
+package study.querydslstudy.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydslstudy.dto.MemberSearchCondition;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * searchPageComplex 의 count 결과를 정규화된 검색 조건별로 캐시한다.
+ * 회원/팀 변경 시 전체 무효화되며, 트랜잭션 종료 시점에도 한 번 더 무효화해서
+ * 롤백되거나 커밋 전 상태로 계산된 count 가 남지 않도록 한다.
+ * count 는 락 밖에서 계산하므로, 계산하는 동안 무효화가 있었다면 그 결과는 저장하지 않는다.
+ */
+@Component
+public class MemberCountCache implements MeterBinder {
+
+	private final int maxSize;
+
+	private final long ttlNanos;
+
+	private final Map<MemberSearchCondition, Entry> entries;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	// 무효화 횟수. entries 락 안에서만 바꾼다
+	private long generation;
+
+	public MemberCountCache(@Value("${member.count-cache.max-size:1000}") int maxSize,
+							@Value("${member.count-cache.ttl:30s}") Duration ttl) {
+		this.maxSize = maxSize;
+		this.ttlNanos = ttl.toNanos();
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<MemberSearchCondition, Entry> eldest) {
+				return size() > MemberCountCache.this.maxSize;
+			}
+		};
+	}
+
+	public long get(MemberSearchCondition condition, LongSupplier countSupplier) {
+		if(maxSize <= 0) {
+			missCount.incrementAndGet();
+			return countSupplier.getAsLong();
+		}
+
+		MemberSearchCondition key = condition.normalize();
+		long now = System.nanoTime();
+		long startGeneration;
+
+		synchronized(entries) {
+			Entry entry = entries.get(key);
+			if(entry != null && now - entry.createdAt < ttlNanos) {
+				hitCount.incrementAndGet();
+				return entry.count;
+			}
+			startGeneration = generation;
+		}
+
+		missCount.incrementAndGet();
+		long count = countSupplier.getAsLong();
+
+		synchronized(entries) {
+			if(generation == startGeneration) {
+				entries.put(key, new Entry(count, now));
+			}
+		}
+		return count;
+	}
+
+	public void invalidateAll() {
+		clear();
+
+		// 트랜잭션당 한 번만 등록 (대량 insert 시 엔티티마다 등록되지 않도록)
+		if(TransactionSynchronizationManager.isSynchronizationActive()
+			&& !TransactionSynchronizationManager.hasResource(this)) {
+			TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(MemberCountCache.this);
+					clear();
+				}
+			});
+		}
+	}
+
+	private void clear() {
+		synchronized(entries) {
+			entries.clear();
+			generation++;
+		}
+	}
+
+	@EventListener
+	public void onBulkChanged(MemberBulkChangedEvent event) {
+		invalidateAll();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public int size() {
+		synchronized(entries) {
+			return entries.size();
+		}
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("member.count.cache.requests", hitCount, AtomicLong::get)
+			.tag("result", "hit")
+			.register(registry);
+		FunctionCounter.builder("member.count.cache.requests", missCount, AtomicLong::get)
+			.tag("result", "miss")
+			.register(registry);
+		Gauge.builder("member.count.cache.size", this, MemberCountCache::size)
+			.register(registry);
+	}
+
+	private record Entry(long count, long createdAt) {
+	}
+}
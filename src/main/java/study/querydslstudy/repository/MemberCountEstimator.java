@@ -0,0 +1,193 @@
+package study.querydslstudy.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.entity.Team;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static study.querydslstudy.entity.QMember.member;
+
+/**
+ * 검색 결과 건수 추정. 전체 행 수, 나이별 히스토그램, 팀별 회원 수를 주기적으로 모아 두고
+ * 조건들이 서로 독립이라고 가정해서 선택도를 곱한다.
+ * username 조건은 인덱스로 정확한 count 가 싸므로 추정하지 않는다.
+ * 통계는 전체 회원을 두 번 group by 하므로 요청 스레드에서 모으지 않는다. 오래되면 백그라운드에서 다시 모으고
+ * 그동안은 이전 통계로 추정한다. 처음 모으기 전에는 추정하지 않는다(정확한 count 사용).
+ */
+@Slf4j
+@Component
+public class MemberCountEstimator implements DisposableBean {
+
+	private final JdbcTemplate jdbcTemplate;
+
+	private final JPAQueryFactory queryFactory;
+
+	private final TeamRepository teamRepository;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final long refreshNanos;
+
+	private final String rowCountQuery;
+
+	private final long exactThreshold;
+
+	private final ExecutorService refresher = Executors.newSingleThreadExecutor(r -> {
+		Thread thread = new Thread(r, "member-count-estimator");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final AtomicBoolean refreshScheduled = new AtomicBoolean();
+
+	private volatile Statistics statistics;
+
+	public MemberCountEstimator(JdbcTemplate jdbcTemplate, JPAQueryFactory queryFactory, TeamRepository teamRepository,
+								PlatformTransactionManager transactionManager,
+								@Value("${member.count-estimate.refresh:5m}") Duration refresh,
+								@Value("${member.count-estimate.row-count-query:}") String rowCountQuery,
+								@Value("${member.count-estimate.exact-threshold:1000}") long exactThreshold) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.queryFactory = queryFactory;
+		this.teamRepository = teamRepository;
+		// 통계는 근사치라 복제 지연이 있어도 되므로 읽기 전용(레플리카)으로 모은다
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.transactionTemplate.setReadOnly(true);
+		this.refreshNanos = refresh.toNanos();
+		this.rowCountQuery = rowCountQuery;
+		this.exactThreshold = exactThreshold;
+	}
+
+	// 추정치가 이보다 작으면 정확한 count 도 충분히 싸므로 정확한 값을 쓴다
+	public long getExactThreshold() {
+		return exactThreshold;
+	}
+
+	public boolean isEstimable(MemberSearchCondition condition) {
+		return !StringUtils.hasText(condition.getUsername()) && statistics() != null;
+	}
+
+	public long estimate(MemberSearchCondition condition) {
+		Statistics stats = statistics();
+		if(stats == null || stats.total == 0 || stats.histogramTotal == 0) {
+			return 0;
+		}
+
+		double selectivity = 1.0;
+
+		if(condition.getAgeGoe() != null || condition.getAgeLoe() != null) {
+			long inRange = 0;
+			for(Map.Entry<Integer, Long> entry : stats.ageCounts.entrySet()) {
+				int age = entry.getKey();
+				if((condition.getAgeGoe() == null || age >= condition.getAgeGoe())
+					&& (condition.getAgeLoe() == null || age <= condition.getAgeLoe())) {
+					inRange += entry.getValue();
+				}
+			}
+			selectivity *= (double) inRange / stats.histogramTotal;
+		}
+
+		if(StringUtils.hasText(condition.getTeamName())) {
+			long teamMembers = 0;
+			for(Team team : teamRepository.findByName(condition.getTeamName())) {
+				teamMembers += stats.teamSizes.getOrDefault(team.getId(), 0L);
+			}
+			selectivity *= (double) teamMembers / stats.histogramTotal;
+		}
+
+		return Math.round(stats.total * selectivity);
+	}
+
+	// 지금 통계(없으면 null). 오래되었으면 백그라운드 갱신을 예약하고 이전 통계를 그대로 돌려준다
+	private Statistics statistics() {
+		Statistics current = statistics;
+		if(current == null || System.nanoTime() - current.createdAt >= refreshNanos) {
+			scheduleRefresh();
+		}
+		return current;
+	}
+
+	private void scheduleRefresh() {
+		if(!refreshScheduled.compareAndSet(false, true)) {
+			return;
+		}
+		refresher.execute(() -> {
+			try {
+				refresh();
+			}
+			catch(RuntimeException e) {
+				log.warn("member count statistics refresh failed, keeping the previous statistics", e);
+			}
+			finally {
+				refreshScheduled.set(false);
+			}
+		});
+	}
+
+	/**
+	 * 통계를 모아서 바로 교체한다. 백그라운드 갱신이 사용하고, 테스트에서는 직접 호출한다.
+	 */
+	void refresh() {
+		statistics = transactionTemplate.execute(status -> collect());
+	}
+
+	@Override
+	public void destroy() {
+		refresher.shutdownNow();
+	}
+
+	private Statistics collect() {
+		Map<Integer, Long> ageCounts = new HashMap<>();
+		long histogramTotal = 0;
+		for(Tuple tuple : queryFactory.select(member.age, member.count()).from(member).groupBy(member.age).fetch()) {
+			long count = tuple.get(member.count());
+			ageCounts.put(tuple.get(member.age), count);
+			histogramTotal += count;
+		}
+
+		Map<Long, Long> teamSizes = new HashMap<>();
+		for(Tuple tuple : queryFactory.select(member.team.id, member.count()).from(member).groupBy(member.team.id).fetch()) {
+			Long teamId = tuple.get(member.team.id);
+			if(teamId != null) {
+				teamSizes.put(teamId, tuple.get(member.count()));
+			}
+		}
+
+		return new Statistics(tableRowCount(histogramTotal), histogramTotal, ageCounts, teamSizes, System.nanoTime());
+	}
+
+	// 전체 행 수는 DB 통계(row-count-query)를 우선 사용하고, 없으면 히스토그램 합계를 사용한다
+	// JdbcTemplate 예외는 JPA 트랜잭션을 rollback-only 로 만들지 않는다
+	private long tableRowCount(long histogramTotal) {
+		if(!StringUtils.hasText(rowCountQuery)) {
+			return histogramTotal;
+		}
+		try {
+			Long rowCount = jdbcTemplate.queryForObject(rowCountQuery, Long.class);
+			return rowCount != null ? rowCount : histogramTotal;
+		}
+		catch(RuntimeException e) {
+			log.debug("table statistics unavailable", e);
+			return histogramTotal;
+		}
+	}
+
+	private record Statistics(long total, long histogramTotal, Map<Integer, Long> ageCounts,
+							  Map<Long, Long> teamSizes, long createdAt) {
+	}
+}
@@ -0,0 +1,64 @@
+package study.querydslstudy.repository;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * member, team 테이블의 변경 버전. 쓰기 시점과 트랜잭션 종료 시점에 모두 올려서
+ * 커밋 전 데이터로 만든 ETag 가 커밋 후에도 유효하게 남지 않도록 한다.
+ * 버전은 JVM 안에서만 유지되므로 epoch 를 함께 써서 다른 인스턴스나 재시작 전의 ETag 와 겹치지 않게 한다.
+ * 여러 인스턴스가 같은 DB 에 쓰는 구성에서는 다른 인스턴스의 변경을 알 수 없다.
+ * Last-Modified 는 초 단위라서 같은 초 안의 변경은 ETag(If-None-Match)로만 구분된다.
+ */
+@Component
+public class MemberDataVersion {
+
+	private final String epoch = UUID.randomUUID().toString();
+
+	private final AtomicLong version = new AtomicLong();
+
+	private volatile long lastModified = System.currentTimeMillis();
+
+	public void increment() {
+		bump();
+
+		if(TransactionSynchronizationManager.isSynchronizationActive()
+			&& !TransactionSynchronizationManager.hasResource(this)) {
+			TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(MemberDataVersion.this);
+					bump();
+				}
+			});
+		}
+	}
+
+	@EventListener
+	public void onBulkChanged(MemberBulkChangedEvent event) {
+		increment();
+	}
+
+	public String getEpoch() {
+		return epoch;
+	}
+
+	public long getVersion() {
+		return version.get();
+	}
+
+	public long getLastModified() {
+		return lastModified;
+	}
+
+	private void bump() {
+		version.incrementAndGet();
+		lastModified = System.currentTimeMillis();
+	}
+}
@@ -0,0 +1,25 @@
+package study.querydslstudy.repository;
+
+import study.querydslstudy.entity.Member;
+
+/**
+ * 회원 엔티티 조회 시 함께 읽을 연관관계. 화면(엔드포인트)이 쓰는 연관관계에 맞춰 고른다.
+ */
+public enum MemberFetchProfile {
+
+	// 연관관계는 지연 로딩. 접근하면 default_batch_fetch_size 만큼 묶어서 초기화된다
+	MEMBER_ONLY(null),
+
+	// team 을 같은 select 에서 join 으로 읽는다
+	MEMBER_WITH_TEAM(Member.GRAPH_WITH_TEAM);
+
+	private final String graphName;
+
+	MemberFetchProfile(String graphName) {
+		this.graphName = graphName;
+	}
+
+	public String getGraphName() {
+		return graphName;
+	}
+}
@@ -3,25 +3,34 @@ package study.querydslstudy.repository;
 import com.querydsl.core.BooleanBuilder;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydslstudy.dto.MemberSearchCondition;
 import study.querydslstudy.dto.MemberTeamDto;
 import study.querydslstudy.dto.QMemberTeamDto;
 import study.querydslstudy.entity.Member;
 
+import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import static study.querydslstudy.entity.QMember.member;
 import static study.querydslstudy.entity.QTeam.team;
 
 @Repository
+@Timed(value = "member.repository", histogram = true)
 @RequiredArgsConstructor
 public class MemberJpaRepository {
 
+	private static final int STREAM_FETCH_SIZE = 1000;
+
 	private final EntityManager em;
 
 	private final JPAQueryFactory queryFactory;
@@ -59,12 +68,13 @@ public class MemberJpaRepository {
 			.fetch();
 	}
 
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> searchByBuilder(MemberSearchCondition condition) {
 
 		BooleanBuilder builder = new BooleanBuilder();
 
 		if(StringUtils.hasText(condition.getUsername())) {
-			builder.and(member.username.eq(condition.getUsername()));
+			builder.and(usernameMatches(condition));
 		}
 
 		if(StringUtils.hasText(condition.getTeamName())) {
@@ -93,6 +103,7 @@ public class MemberJpaRepository {
 			.fetch();
 	}
 
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> searchByWhereParam(MemberSearchCondition condition) {
 		return queryFactory
 			.select(new QMemberTeamDto(
@@ -105,7 +116,7 @@ public class MemberJpaRepository {
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
 				ageLoe(condition.getAgeLoe())
@@ -113,12 +124,48 @@ public class MemberJpaRepository {
 			.fetch();
 	}
 
+	// 전체 결과를 List 로 모으지 않고 forward-only 커서로 한 건씩 넘긴다
+	@Transactional(readOnly = true)
+	public long forEachByWhereParam(MemberSearchCondition condition, Consumer<MemberTeamDto> action) {
+		long count = 0;
+		try(Stream<MemberTeamDto> stream = queryFactory
+			.select(new QMemberTeamDto(
+				member.id.as("memberId"),
+				member.username,
+				member.age,
+				team.id.as("teamId"),
+				team.name.as("teamName")
+			))
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(
+				usernameMatches(condition),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe())
+			)
+			.setHint(HibernateHints.HINT_FETCH_SIZE, STREAM_FETCH_SIZE)
+			.setHint(HibernateHints.HINT_READ_ONLY, true)
+			.stream()) {
+
+			Iterator<MemberTeamDto> iterator = stream.iterator();
+			while(iterator.hasNext()) {
+				action.accept(iterator.next());
+				if(++count % STREAM_FETCH_SIZE == 0) {
+					em.clear();
+				}
+			}
+		}
+		return count;
+	}
+
+	@Transactional(readOnly = true)
 	public List<Member> searchMemberByWhereParam(MemberSearchCondition condition) {
 		return queryFactory
 			.selectFrom(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition),
 				teamNameEq(condition.getTeamName()),
 				ageBetween(condition.getAgeLoe(), condition.getAgeGoe())
 			)
@@ -129,8 +176,9 @@ public class MemberJpaRepository {
 		return ageGoe(ageLoe).and(ageGoe(ageGoe));
 	}
 
-	private BooleanExpression usernameEq(String username) {
-		return StringUtils.hasText(username) ? member.username.eq(username) : null;
+	// usernameMatch(EXACT, PREFIX, CONTAINS)는 MemberRepository 검색과 같은 방식으로 비교한다
+	private BooleanExpression usernameMatches(MemberSearchCondition condition) {
+		return UsernamePredicates.matches(condition);
 	}
 
 	private BooleanExpression teamNameEq(String teamName) {
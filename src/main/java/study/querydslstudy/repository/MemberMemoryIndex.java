@@ -0,0 +1,438 @@
+package study.querydslstudy.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.dto.MemberTeamDto;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static study.querydslstudy.entity.QMember.member;
+import static study.querydslstudy.entity.QTeam.team;
+
+/**
+ * MemberTeamDto 검색 전용 인메모리 컬럼 인덱스 (member.memory-index.enabled).
+ * id/age/team 은 기본형 배열, username/team.name 은 사전(dictionary) 코드로 저장해서
+ * 검색 조건을 정수 비교만으로 순차 스캔한다.
+ * 회원/팀 변경 시 스냅샷을 즉시 버리고(DB 조회로 대체) 트랜잭션 종료 후 백그라운드에서 다시 적재한다.
+ * 한 행씩 반영(write-through)하지 않는 이유: 스냅샷이 불변 배열이라 한 행을 바꿀 때도 배열 전체를 복사해야 하고,
+ * 커밋되지 않은 변경이 보이지 않게 하려면 어차피 커밋 후에 반영해야 해서 재적재와 얻는 것이 크지 않다.
+ * 적재는 reload-delay 만큼 미뤄서 연달아 들어온 변경을 한 번의 적재로 묶는다.
+ * 적재를 시작할 때나 끝낼 때 끝나지 않은 쓰기 트랜잭션이 있거나, 적재 중에 쓰기 트랜잭션이 끝났다면 그 스냅샷은 게시하지 않는다.
+ * 그러면 커밋 직전 상태로 만든 스냅샷이 커밋 후에 남지 않는다. 남은 트랜잭션이 끝날 때 다시 적재를 예약한다.
+ * 쓰기가 끊이지 않으면 인덱스는 계속 비어 있고 DB 로 조회하므로 읽기 위주의 데이터에 맞는 방식이다.
+ */
+@Slf4j
+@Component
+public class MemberMemoryIndex implements MeterBinder, DisposableBean {
+
+	private final boolean enabled;
+
+	private final JPAQueryFactory queryFactory;
+
+	// 읽기 전용으로 두면 레플리카로 라우팅되어 복제 지연만큼 오래된 스냅샷이 만들어질 수 있으므로 primary 에서 읽는다
+	private final TransactionTemplate transactionTemplate;
+
+	private final long reloadDelayNanos;
+
+	private final ScheduledExecutorService loader = Executors.newSingleThreadScheduledExecutor(r -> {
+		Thread thread = new Thread(r, "member-memory-index");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private final AtomicBoolean loadScheduled = new AtomicBoolean();
+
+	// 회원/팀을 바꾸고 아직 끝나지 않은 트랜잭션 수
+	private final AtomicInteger activeWriters = new AtomicInteger();
+
+	// 끝난 쓰기(트랜잭션 밖 쓰기 포함) 수. 적재 중에 바뀌었으면 그 스냅샷은 버린다
+	private final AtomicLong completedWrites = new AtomicLong();
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private volatile Snapshot snapshot;
+
+	public MemberMemoryIndex(@Value("${member.memory-index.enabled:false}") boolean enabled,
+							 @Value("${member.memory-index.reload-delay:1s}") Duration reloadDelay,
+							 JPAQueryFactory queryFactory,
+							 PlatformTransactionManager transactionManager) {
+		this.enabled = enabled;
+		this.reloadDelayNanos = reloadDelay.toNanos();
+		this.queryFactory = queryFactory;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * 지금 메모리에서 응답할 수 있는 스냅샷. 쓰기 트랜잭션 안에서는 아직 flush 되지 않은 변경이 있을 수 있으므로 쓰지 않는다.
+	 */
+	public Snapshot current() {
+		if(!enabled) {
+			return null;
+		}
+		if(TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			missCount.incrementAndGet();
+			return null;
+		}
+
+		Snapshot current = snapshot;
+		if(current == null) {
+			missCount.incrementAndGet();
+		}
+		else {
+			hitCount.incrementAndGet();
+		}
+		return current;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onReady() {
+		scheduleLoad();
+	}
+
+	public void invalidate() {
+		if(!enabled) {
+			return;
+		}
+
+		if(TransactionSynchronizationManager.isSynchronizationActive()) {
+			// 트랜잭션당 한 번만 등록하고, 끝날 때까지 쓰는 중으로 센다
+			if(!TransactionSynchronizationManager.hasResource(this)) {
+				TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+				activeWriters.incrementAndGet();
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCompletion(int status) {
+						TransactionSynchronizationManager.unbindResourceIfPossible(MemberMemoryIndex.this);
+						writeCompleted(true);
+					}
+				});
+			}
+			discardSnapshot();
+		}
+		else {
+			writeCompleted(false);
+		}
+	}
+
+	// 쓰기 추적은 이 클래스 안에서 끝나므로 다른 MemberBulkChangedEvent 리스너(MemberDataVersion 등)의 실행 순서와 무관하다
+	@EventListener
+	public void onBulkChanged(MemberBulkChangedEvent event) {
+		invalidate();
+	}
+
+	/**
+	 * 현재 트랜잭션(없으면 새 트랜잭션)에서 보이는 회원 전체로 스냅샷을 만든다. 게시하지는 않는다.
+	 * 결과를 List 로 모으지 않고 한 행씩 기본형 배열에 옮겨서 적재 중 힙 사용량을 스냅샷 크기 정도로 유지한다.
+	 */
+	Snapshot load() {
+		return transactionTemplate.execute(status -> {
+			Snapshot.Builder builder = new Snapshot.Builder();
+			try(Stream<Tuple> rows = queryFactory
+				.select(member.id, member.username, member.age, team.id, team.name)
+				.from(member)
+				.leftJoin(member.team, team)
+				.orderBy(member.id.asc())
+				.stream()) {
+				rows.forEach(row -> builder.add(row.get(member.id), row.get(member.username), row.get(member.age),
+					row.get(team.id), row.get(team.name)));
+			}
+			return builder.build();
+		});
+	}
+
+	// 쓰는 중인 트랜잭션 수와 끝난 쓰기 수를 한 번에 바꿔야 적재 쪽 게시 조건 사이에 끼어들지 않는다
+	private void writeCompleted(boolean inTransaction) {
+		synchronized(this) {
+			if(inTransaction) {
+				activeWriters.decrementAndGet();
+			}
+			completedWrites.incrementAndGet();
+			snapshot = null;
+		}
+		scheduleLoad();
+	}
+
+	private synchronized void discardSnapshot() {
+		snapshot = null;
+	}
+
+	// 연달아 들어온 변경은 이미 예약된 적재 하나로 묶는다
+	private void scheduleLoad() {
+		if(!enabled || !loadScheduled.compareAndSet(false, true)) {
+			return;
+		}
+		loader.schedule(() -> {
+			loadScheduled.set(false);
+			try {
+				long writes = completedWrites.get();
+				if(activeWriters.get() > 0) {
+					// 남은 트랜잭션의 afterCompletion 이 다시 예약한다
+					return;
+				}
+				Snapshot loaded = load();
+				synchronized(this) {
+					if(activeWriters.get() == 0 && completedWrites.get() == writes) {
+						snapshot = loaded;
+						log.info("member memory index loaded: {} rows", loaded.size());
+					}
+				}
+			}
+			catch(RuntimeException e) {
+				log.warn("member memory index load failed, searches fall back to the database", e);
+			}
+		}, reloadDelayNanos, TimeUnit.NANOSECONDS);
+	}
+
+	public int size() {
+		Snapshot current = snapshot;
+		return current == null ? 0 : current.size();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("member.memory.index.requests", hitCount, AtomicLong::get)
+			.tag("result", "hit")
+			.register(registry);
+		FunctionCounter.builder("member.memory.index.requests", missCount, AtomicLong::get)
+			.tag("result", "miss")
+			.register(registry);
+		Gauge.builder("member.memory.index.rows", this, MemberMemoryIndex::size)
+			.register(registry);
+	}
+
+	@Override
+	public void destroy() {
+		loader.shutdownNow();
+	}
+
+	/**
+	 * 불변 컬럼 스냅샷. 행은 member.id 순서이고, team 이 없는 회원의 teamCode 는 -1 이다.
+	 */
+	public static final class Snapshot {
+
+		private static final int NO_TEAM = -1;
+
+		private final long[] ids;
+
+		private final int[] ages;
+
+		private final int[] teamCodes;
+
+		private final int[] usernameCodes;
+
+		private final String[] usernames;
+
+		private final Map<String, Integer> usernameDictionary;
+
+		private final long[] teamIds;
+
+		private final String[] teamNames;
+
+		private Snapshot(long[] ids, int[] ages, int[] teamCodes, int[] usernameCodes, String[] usernames,
+						 Map<String, Integer> usernameDictionary, long[] teamIds, String[] teamNames) {
+			this.ids = ids;
+			this.ages = ages;
+			this.teamCodes = teamCodes;
+			this.usernameCodes = usernameCodes;
+			this.usernames = usernames;
+			this.usernameDictionary = usernameDictionary;
+			this.teamIds = teamIds;
+			this.teamNames = teamNames;
+		}
+
+		/**
+		 * 행을 id 순으로 받아 배열을 늘려 가며 채운다. build 에서 실제 행 수로 자른다.
+		 */
+		static final class Builder {
+
+			private long[] ids = new long[1024];
+
+			private int[] ages = new int[1024];
+
+			private int[] teamCodes = new int[1024];
+
+			private int[] usernameCodes = new int[1024];
+
+			private int size;
+
+			private final Map<String, Integer> usernameDictionary = new HashMap<>();
+
+			private final List<String> usernames = new ArrayList<>();
+
+			private final Map<Long, Integer> teamDictionary = new HashMap<>();
+
+			private final List<Long> teamIds = new ArrayList<>();
+
+			private final List<String> teamNames = new ArrayList<>();
+
+			void add(Long id, String username, Integer age, Long teamId, String teamName) {
+				if(size == ids.length) {
+					int capacity = size + (size >> 1);
+					ids = Arrays.copyOf(ids, capacity);
+					ages = Arrays.copyOf(ages, capacity);
+					teamCodes = Arrays.copyOf(teamCodes, capacity);
+					usernameCodes = Arrays.copyOf(usernameCodes, capacity);
+				}
+
+				ids[size] = id;
+				ages[size] = age == null ? 0 : age;
+				usernameCodes[size] = username == null ? -1 : usernameDictionary.computeIfAbsent(username, name -> {
+					usernames.add(name);
+					return usernames.size() - 1;
+				});
+				teamCodes[size] = teamId == null ? NO_TEAM : teamDictionary.computeIfAbsent(teamId, key -> {
+					teamIds.add(key);
+					teamNames.add(teamName);
+					return teamIds.size() - 1;
+				});
+				size++;
+			}
+
+			Snapshot build() {
+				return new Snapshot(Arrays.copyOf(ids, size), Arrays.copyOf(ages, size), Arrays.copyOf(teamCodes, size),
+					Arrays.copyOf(usernameCodes, size), usernames.toArray(String[]::new), usernameDictionary,
+					teamIds.stream().mapToLong(Long::longValue).toArray(), teamNames.toArray(String[]::new));
+			}
+		}
+
+		public int size() {
+			return ids.length;
+		}
+
+		public List<MemberTeamDto> search(MemberSearchCondition condition) {
+			List<MemberTeamDto> result = new ArrayList<>();
+			scan(condition, 0, Integer.MAX_VALUE, result);
+			return result;
+		}
+
+		public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+			List<MemberTeamDto> content = new ArrayList<>(pageable.getPageSize());
+			int total = scan(condition, pageable.getOffset(), pageable.getPageSize(), content);
+			return new PageImpl<>(content, pageable, total);
+		}
+
+		public int count(MemberSearchCondition condition) {
+			return scan(condition, 0, 0, new ArrayList<>(0));
+		}
+
+		/**
+		 * 조건에 맞는 행 수를 세면서 offset 이후 limit 개까지만 DTO 로 만든다.
+		 * 문자열 조건은 스캔 전에 사전 코드로 바꾸므로 루프 안에서는 정수 비교만 한다.
+		 */
+		private int scan(MemberSearchCondition condition, long offset, int limit, List<MemberTeamDto> out) {
+			int usernameCode = -1;
+			boolean[] usernameMatches = null;
+			if(StringUtils.hasText(condition.getUsername())) {
+				String username = condition.getUsername();
+				if(condition.getUsernameMatchOrDefault() == MemberSearchCondition.UsernameMatch.EXACT) {
+					Integer code = usernameDictionary.get(username);
+					if(code == null) {
+						return 0;
+					}
+					usernameCode = code;
+				}
+				else {
+					// 사전(서로 다른 username)만 한 번 훑어서 맞는 코드를 표시해 두고, 행 스캔에서는 코드로만 확인한다
+					usernameMatches = new boolean[usernames.length];
+					boolean any = false;
+					for(int u = 0; u < usernames.length; u++) {
+						boolean matches = condition.getUsernameMatchOrDefault() == MemberSearchCondition.UsernameMatch.PREFIX
+							? usernames[u].startsWith(username)
+							: usernames[u].contains(username);
+						usernameMatches[u] = matches;
+						any |= matches;
+					}
+					if(!any) {
+						return 0;
+					}
+				}
+			}
+
+			boolean[] teamMatches = null;
+			if(StringUtils.hasText(condition.getTeamName())) {
+				teamMatches = new boolean[teamIds.length];
+				boolean any = false;
+				for(int t = 0; t < teamNames.length; t++) {
+					if(condition.getTeamName().equals(teamNames[t])) {
+						teamMatches[t] = true;
+						any = true;
+					}
+				}
+				if(!any) {
+					return 0;
+				}
+			}
+
+			int ageGoe = condition.getAgeGoe() == null ? Integer.MIN_VALUE : condition.getAgeGoe();
+			int ageLoe = condition.getAgeLoe() == null ? Integer.MAX_VALUE : condition.getAgeLoe();
+
+			int matched = 0;
+			for(int i = 0; i < ids.length; i++) {
+				int age = ages[i];
+				if(age < ageGoe || age > ageLoe) {
+					continue;
+				}
+				if(usernameCode >= 0 && usernameCodes[i] != usernameCode) {
+					continue;
+				}
+				if(usernameMatches != null && (usernameCodes[i] < 0 || !usernameMatches[usernameCodes[i]])) {
+					continue;
+				}
+				if(teamMatches != null && (teamCodes[i] == NO_TEAM || !teamMatches[teamCodes[i]])) {
+					continue;
+				}
+				if(matched >= offset && out.size() < limit) {
+					out.add(toDto(i));
+				}
+				matched++;
+			}
+			return matched;
+		}
+
+		private MemberTeamDto toDto(int row) {
+			int teamCode = teamCodes[row];
+			int usernameCode = usernameCodes[row];
+			return new MemberTeamDto(
+				ids[row],
+				usernameCode < 0 ? null : usernames[usernameCode],
+				ages[row],
+				teamCode == NO_TEAM ? null : teamIds[teamCode],
+				teamCode == NO_TEAM ? null : teamNames[teamCode]
+			);
+		}
+	}
+}
@@ -1,11 +1,20 @@
 package study.querydslstudy.repository;
 
+import com.querydsl.jpa.impl.JPAUpdateClause;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydslstudy.dto.CountedPage;
+import study.querydslstudy.dto.MemberBulkResult;
+import study.querydslstudy.dto.MemberCursor;
 import study.querydslstudy.dto.MemberSearchCondition;
 import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.dto.MemberTeamRecord;
+import study.querydslstudy.entity.Member;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MemberRepositoryCustom {
 
@@ -14,4 +23,55 @@ public interface MemberRepositoryCustom {
 	Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
 
 	Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+
+	/**
+	 * searchPageComplex 와 같은 결과를 내지만 count 쿼리를 count 전용 커넥션 풀(PageCountExecutor)에서 동시에 실행한다.
+	 * timeout 은 두 쿼리 모두에 적용된다. 쓰기 트랜잭션 안에서 호출하면 커밋 전 변경이 보이지 않으므로 순차 실행한다.
+	 */
+	Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable, Duration timeout);
+
+	/**
+	 * 넓은 검색에서는 count 대신 통계 기반 추정치를 total 로 쓴다. CountedPage.isTotalExact() 로 구분한다.
+	 */
+	CountedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable);
+
+	/**
+	 * 조건에 맞는 회원 수를 DB 에서 센다(count 캐시를 거치지 않는다). where 절에 필요한 join 만 한다.
+	 */
+	long countByCondition(MemberSearchCondition condition);
+
+	/**
+	 * 조건에 맞는 회원이 하나라도 있는지 확인한다. 세지 않고 첫 행에서 멈춘다(limit 1).
+	 */
+	boolean existsByCondition(MemberSearchCondition condition);
+
+	/**
+	 * member + team.name 비정규화 테이블(member_team_view)에서 join 없이 검색한다.
+	 */
+	Page<MemberTeamDto> searchPageFromView(MemberSearchCondition condition, Pageable pageable);
+
+	/**
+	 * 회원 엔티티를 id 순으로 조회한다. fetchProfile 의 entity graph 로 함께 읽을 연관관계를 고른다.
+	 */
+	List<Member> findMembers(MemberSearchCondition condition, Pageable pageable, MemberFetchProfile fetchProfile);
+
+	/**
+	 * search 와 같은 조건으로 id 순 결과를 record 로 돌려준다. 행마다 생성자를 직접 호출하는 생성 매퍼를 쓴다.
+	 * 큰 결과를 읽을 때 쓰며 plan cache, 메모리 인덱스는 거치지 않는다.
+	 */
+	List<MemberTeamRecord> searchRecords(MemberSearchCondition condition);
+
+	Slice<MemberTeamDto> searchByIdCursor(MemberSearchCondition condition, MemberCursor cursor, int size);
+
+	Slice<MemberTeamDto> searchByAgeCursor(MemberSearchCondition condition, MemberCursor cursor, int size);
+
+	/**
+	 * 조건에 맞는 회원을 id 범위(chunkSize) 단위로 나눠 벌크 수정한다.
+	 * 트랜잭션 밖에서 호출하면 chunk 마다 별도 트랜잭션으로 실행되고 parallelism 만큼 병렬 실행된다.
+	 * 이미 커밋된 chunk 는 이후 chunk 가 실패해도 되돌리지 않는다.
+	 * 트랜잭션 안에서 호출하면 현재 트랜잭션에 참여해서 순차 실행된다.
+	 */
+	MemberBulkResult bulkUpdate(MemberSearchCondition condition, Consumer<JPAUpdateClause> updateAction, int chunkSize, int parallelism);
+
+	MemberBulkResult bulkDelete(MemberSearchCondition condition, int chunkSize, int parallelism);
 }
@@ -1,33 +1,130 @@
 package study.querydslstudy.repository;
 
 import com.querydsl.core.QueryResults;
+import com.querydsl.core.Tuple;
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.JPAExpressions;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import com.querydsl.jpa.impl.JPAUpdateClause;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
+import study.querydslstudy.dto.CountedPage;
+import study.querydslstudy.dto.MemberBulkResult;
+import study.querydslstudy.dto.MemberCursor;
 import study.querydslstudy.dto.MemberSearchCondition;
 import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.dto.MemberTeamRecord;
+import study.querydslstudy.dto.MemberTeamRecordMapper;
 import study.querydslstudy.dto.QMemberTeamDto;
 import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.QTeam;
+import study.querydslstudy.entity.UsernameTrigrams;
 
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
 
 import static study.querydslstudy.entity.QMember.member;
+import static study.querydslstudy.entity.QMemberTeamView.memberTeamView;
 import static study.querydslstudy.entity.QTeam.team;
 
+@Timed(value = "member.repository", histogram = true)
 @RequiredArgsConstructor
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+	private static final QTeam teamSub = new QTeam("teamSub");
+
+	private final EntityManager em;
+
 	private final JPAQueryFactory queryFactory;
 
+	private final PlatformTransactionManager transactionManager;
+
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final MemberCountCache memberCountCache;
+
+	private final MemberSearchPlanCache memberSearchPlanCache;
+
+	private final PageCountExecutor pageCountExecutor;
+
+	private final MemberCountEstimator memberCountEstimator;
+
+	private final MemberMemoryIndex memberMemoryIndex;
+
+	private final MemberTeamViewRepository memberTeamViewRepository;
+
 	@Override
+	@Transactional(readOnly = true)
 	public List<MemberTeamDto> search(MemberSearchCondition condition) {
-		return queryFactory
+		MemberMemoryIndex.Snapshot snapshot = memberMemoryIndex.current();
+		if(snapshot != null) {
+			return snapshot.search(condition);
+		}
+		// plan cache 는 username 일치(EXACT) 형태만 만든다
+		if(StringUtils.hasText(condition.getUsername()) && condition.getUsernameMatchOrDefault() != MemberSearchCondition.UsernameMatch.EXACT) {
+			return queryFactory
+				.select(new QMemberTeamDto(
+					member.id.as("memberId"),
+					member.username,
+					member.age,
+					team.id.as("teamId"),
+					team.name.as("teamName")
+				))
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(
+					usernameMatches(condition),
+					teamNameEq(condition.getTeamName()),
+					ageGoe(condition.getAgeGoe()),
+					ageLoe(condition.getAgeLoe())
+				)
+				.fetch();
+		}
+		return memberSearchPlanCache.search(condition);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
+		QueryResults<MemberTeamDto> results = queryFactory
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"),
 				member.username,
@@ -38,17 +135,34 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
 				ageLoe(condition.getAgeLoe())
 			)
-			.fetch();
+			.orderBy(MemberSort.MEMBER.toOrderSpecifiers(pageable.getSort()))
+			.offset(pageable.getOffset())
+			.limit(pageable.getPageSize())
+			.fetchResults();
+
+		List<MemberTeamDto> content = results.getResults();
+		long total = results.getTotal();
+
+		return new PageImpl<>(content, pageable, total);
 	}
 
 	@Override
-	public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-		QueryResults<MemberTeamDto> results = queryFactory
+	@Transactional(readOnly = true)
+	public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+		OrderSpecifier<?>[] orders = MemberSort.MEMBER.toOrderSpecifiers(pageable.getSort());
+
+		// 메모리 인덱스는 id 순서로만 스캔하므로 정렬 요청은 DB 로 보낸다
+		MemberMemoryIndex.Snapshot snapshot = pageable.getSort().isSorted() ? null : memberMemoryIndex.current();
+		if(snapshot != null) {
+			return snapshot.searchPage(condition, pageable);
+		}
+
+		List<MemberTeamDto> content = queryFactory
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"),
 				member.username,
@@ -59,23 +173,142 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
 				ageLoe(condition.getAgeLoe())
 			)
+			.orderBy(orders)
 			.offset(pageable.getOffset())
 			.limit(pageable.getPageSize())
-			.fetchResults();
+			.fetch();
 
-		List<MemberTeamDto> content = results.getResults();
-		long total = results.getTotal();
+		JPAQuery<Long> countQuery = countQuery(condition);
 
-		return new PageImpl<>(content, pageable, total);
+//		return new PageImpl<>(content, pageable, total);
+		return PageableExecutionUtils.getPage(content, pageable, () -> memberCountCache.get(condition, countQuery::fetchOne));
 	}
 
 	@Override
-	public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
+	@Transactional(readOnly = true)
+	public Page<MemberTeamDto> searchPageConcurrent(MemberSearchCondition condition, Pageable pageable, Duration timeout) {
+		OrderSpecifier<?>[] orders = MemberSort.MEMBER.toOrderSpecifiers(pageable.getSort());
+		long deadline = System.nanoTime() + timeout.toNanos();
+		int timeoutMillis = (int) Math.max(timeout.toMillis(), 1);
+
+		boolean inWriteTransaction = TransactionSynchronizationManager.isActualTransactionActive()
+			&& !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		Future<Long> countFuture = inWriteTransaction ? null : pageCountExecutor.submit(() -> countInCountSession(condition, timeoutMillis));
+
+		List<MemberTeamDto> content;
+		try {
+			content = queryFactory
+				.select(new QMemberTeamDto(
+					member.id.as("memberId"),
+					member.username,
+					member.age,
+					team.id.as("teamId"),
+					team.name.as("teamName")
+				))
+				.from(member)
+				.leftJoin(member.team, team)
+				.where(
+					usernameMatches(condition),
+					teamNameEq(condition.getTeamName()),
+					ageGoe(condition.getAgeGoe()),
+					ageLoe(condition.getAgeLoe())
+				)
+				.orderBy(orders)
+				.offset(pageable.getOffset())
+				.limit(pageable.getPageSize())
+				.setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, timeoutMillis)
+				.fetch();
+		}
+		catch(RuntimeException e) {
+			if(countFuture != null) {
+				countFuture.cancel(false);
+			}
+			throw e;
+		}
+
+		if(countFuture == null) {
+			return PageableExecutionUtils.getPage(content, pageable,
+				() -> memberCountCache.get(condition, () -> countQuery(condition).setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, timeoutMillis).fetchOne()));
+		}
+
+		// 마지막 페이지임이 content 로 확인되면 count 결과를 기다리지 않는다 (PageableExecutionUtils 와 같은 기준)
+		// cancel 은 아직 시작하지 않은 count 만 막는다. 인터럽트로는 JDBC 문장이 멈추지 않으므로 실행 중인 count 는 쿼리 타임아웃으로 끝난다
+		if((!content.isEmpty() && content.size() < pageable.getPageSize())
+			|| (pageable.getOffset() == 0 && content.isEmpty())) {
+			countFuture.cancel(false);
+			return new PageImpl<>(content, pageable, pageable.getOffset() + content.size());
+		}
+
+		try {
+			long remaining = Math.max(deadline - System.nanoTime(), 0);
+			return new PageImpl<>(content, pageable, countFuture.get(remaining, TimeUnit.NANOSECONDS));
+		}
+		catch(TimeoutException e) {
+			countFuture.cancel(false);
+			throw new QueryTimeoutException("count 쿼리가 " + timeout + " 안에 끝나지 않았습니다.", e);
+		}
+		catch(InterruptedException e) {
+			countFuture.cancel(false);
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException(e);
+		}
+		catch(ExecutionException e) {
+			if(e.getCause() instanceof RuntimeException cause) {
+				throw cause;
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+	}
+
+	// 요청의 커넥션과 별개인 count 전용 풀에서 센다. 캐시에 있으면 커넥션을 꺼내지 않는다
+	private long countInCountSession(MemberSearchCondition condition, int timeoutMillis) {
+		return memberCountCache.get(condition, () -> pageCountExecutor.inCountSession(session ->
+			countQuery(new JPAQueryFactory(session), condition).setHint(SpecHints.HINT_SPEC_QUERY_TIMEOUT, timeoutMillis).fetchOne()));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public long countByCondition(MemberSearchCondition condition) {
+		return countQuery(condition).fetchOne();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public boolean existsByCondition(MemberSearchCondition condition) {
+		return searchFrom(queryFactory.selectOne(), condition).fetchFirst() != null;
+	}
+
+	private JPAQuery<Long> countQuery(MemberSearchCondition condition) {
+		return countQuery(queryFactory, condition);
+	}
+
+	private JPAQuery<Long> countQuery(JPAQueryFactory factory, MemberSearchCondition condition) {
+		return searchFrom(factory.select(member.count()), condition);
+	}
+
+	/**
+	 * 검색 조건을 건 from 절. count, exists 처럼 team 컬럼을 select 하지 않는 쿼리에 쓴다.
+	 * member -> team 은 ManyToOne 이라 left join 을 빼도 행 수가 같고, teamNameEq 도 member.team.id 서브쿼리라서 join 하지 않는다.
+	 */
+	private <T> JPAQuery<T> searchFrom(JPAQuery<T> select, MemberSearchCondition condition) {
+		return select
+			.from(member)
+			.where(
+				usernameMatches(condition),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe())
+			);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public CountedPage<MemberTeamDto> searchPageEstimated(MemberSearchCondition condition, Pageable pageable) {
 		List<MemberTeamDto> content = queryFactory
 			.select(new QMemberTeamDto(
 				member.id.as("memberId"),
@@ -87,36 +320,479 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
 				ageLoe(condition.getAgeLoe())
 			)
+			.orderBy(MemberSort.MEMBER.toOrderSpecifiers(pageable.getSort()))
+			.offset(pageable.getOffset())
+			.limit(pageable.getPageSize())
+			.fetch();
+
+		// 마지막 페이지면 content 만으로 정확한 total 을 알 수 있다
+		long seen = pageable.getOffset() + content.size();
+		if((!content.isEmpty() && content.size() < pageable.getPageSize()) || (pageable.getOffset() == 0 && content.isEmpty())) {
+			return new CountedPage<>(content, pageable, seen, true);
+		}
+
+		if(memberCountEstimator.isEstimable(condition)) {
+			long estimate = memberCountEstimator.estimate(condition);
+			if(estimate >= memberCountEstimator.getExactThreshold()) {
+				return new CountedPage<>(content, pageable, Math.max(estimate, seen), false);
+			}
+		}
+
+		long total = memberCountCache.get(condition, countQuery(condition)::fetchOne);
+		return new CountedPage<>(content, pageable, total, true);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Page<MemberTeamDto> searchPageFromView(MemberSearchCondition condition, Pageable pageable) {
+		List<MemberTeamDto> content = queryFactory
+			.select(new QMemberTeamDto(
+				memberTeamView.memberId,
+				memberTeamView.username,
+				memberTeamView.age,
+				memberTeamView.teamId,
+				memberTeamView.teamName
+			))
+			.from(memberTeamView)
+			.where(
+				viewUsernameMatches(condition),
+				viewTeamNameEq(condition.getTeamName()),
+				viewAgeGoe(condition.getAgeGoe()),
+				viewAgeLoe(condition.getAgeLoe())
+			)
+			.orderBy(MemberSort.VIEW.toOrderSpecifiers(pageable.getSort()))
 			.offset(pageable.getOffset())
 			.limit(pageable.getPageSize())
 			.fetch();
 
-		JPAQuery<Member> countQuery = queryFactory
-			.select(member)
+		JPAQuery<Long> countQuery = queryFactory
+			.select(memberTeamView.count())
+			.from(memberTeamView)
+			.where(
+				viewUsernameMatches(condition),
+				viewTeamNameEq(condition.getTeamName()),
+				viewAgeGoe(condition.getAgeGoe()),
+				viewAgeLoe(condition.getAgeLoe())
+			);
+
+		return PageableExecutionUtils.getPage(content, pageable, () -> memberCountCache.get(condition, countQuery::fetchOne));
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<Member> findMembers(MemberSearchCondition condition, Pageable pageable, MemberFetchProfile fetchProfile) {
+		JPAQuery<Member> query = queryFactory
+			.selectFrom(member)
+			.where(
+				usernameMatches(condition),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe())
+			)
+			.orderBy(member.id.asc())
+			.offset(pageable.getOffset())
+			.limit(pageable.getPageSize());
+
+		if(fetchProfile.getGraphName() != null) {
+			query.setHint(SpecHints.HINT_SPEC_FETCH_GRAPH, em.getEntityGraph(fetchProfile.getGraphName()));
+		}
+		return query.fetch();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public List<MemberTeamRecord> searchRecords(MemberSearchCondition condition) {
+		return queryFactory
+			.select(MemberTeamRecordMapper.projection(
+				member.id,
+				member.username,
+				member.age,
+				team.id,
+				team.name
+			))
 			.from(member)
 			.leftJoin(member.team, team)
 			.where(
-				usernameEq(condition.getUsername()),
+				usernameMatches(condition),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe())
+			)
+			.orderBy(member.id.asc())
+			.fetch();
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<MemberTeamDto> searchByIdCursor(MemberSearchCondition condition, MemberCursor cursor, int size) {
+		List<MemberTeamDto> content = queryFactory
+			.select(new QMemberTeamDto(
+				member.id.as("memberId"),
+				member.username,
+				member.age,
+				team.id.as("teamId"),
+				team.name.as("teamName")
+			))
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(
+				usernameMatches(condition),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe()),
+				idAfter(cursor)
+			)
+			.orderBy(member.id.asc())
+			.limit(size + 1)
+			.fetch();
+
+		return toSlice(content, size);
+	}
+
+	@Override
+	@Transactional(readOnly = true)
+	public Slice<MemberTeamDto> searchByAgeCursor(MemberSearchCondition condition, MemberCursor cursor, int size) {
+		List<MemberTeamDto> content = queryFactory
+			.select(new QMemberTeamDto(
+				member.id.as("memberId"),
+				member.username,
+				member.age,
+				team.id.as("teamId"),
+				team.name.as("teamName")
+			))
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(
+				usernameMatches(condition),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe()),
+				ageAndIdAfter(cursor)
+			)
+			.orderBy(member.age.asc(), member.id.asc())
+			.limit(size + 1)
+			.fetch();
+
+		return toSlice(content, size);
+	}
+
+	@Override
+	public MemberBulkResult bulkUpdate(MemberSearchCondition condition, Consumer<JPAUpdateClause> updateAction, int chunkSize, int parallelism) {
+		return executeInChunks(condition, chunkSize, parallelism, range -> {
+			// update 는 범위 + 조건으로 실행하고, trigram 과 조회 테이블은 조건에 맞았던 행(최대 chunkSize 건)만 다시 쓴다
+			Map<Long, String> before = usernamesById(
+				member.id.goe(range.from()),
+				member.id.lt(range.to()),
+				usernameMatches(condition),
 				teamNameEq(condition.getTeamName()),
 				ageGoe(condition.getAgeGoe()),
 				ageLoe(condition.getAgeLoe())
 			);
 
-//		return new PageImpl<>(content, pageable, total);
-		return PageableExecutionUtils.getPage(content, pageable, countQuery::fetchCount);
+			JPAUpdateClause update = queryFactory
+				.update(member)
+				.where(
+					member.id.goe(range.from()),
+					member.id.lt(range.to()),
+					usernameMatches(condition),
+					teamNameEq(condition.getTeamName()),
+					ageGoe(condition.getAgeGoe()),
+					ageLoe(condition.getAgeLoe())
+				);
+			updateAction.accept(update);
+			long rows = update.execute();
+			if(rows == 0) {
+				return 0;
+			}
+
+			// 읽은 뒤 update 전에 다른 트랜잭션이 조건에 맞는 행을 바꿨으면 어떤 행이 바뀌었는지 모르므로 범위 전체를 다시 쓴다
+			if(rows != before.size()) {
+				rewriteUsernameTrigrams(usernamesById(member.id.goe(range.from()), member.id.lt(range.to())));
+				memberTeamViewRepository.refreshRange(range.from(), range.to());
+				return rows;
+			}
+
+			// JPQL 벌크 update 는 element collection 을 갱신하지 않으므로 username 이 바뀐 회원의 trigram 을 다시 쓴다
+			Map<Long, String> changed = usernamesById(member.id.in(before.keySet()));
+			changed.entrySet().removeIf(entry -> Objects.equals(entry.getValue(), before.get(entry.getKey())));
+			rewriteUsernameTrigrams(changed);
+			// 벌크 update 는 Hibernate 이벤트를 거치지 않으므로 조회 테이블도 직접 맞춘다
+			memberTeamViewRepository.refresh(before.keySet());
+			return rows;
+		});
+	}
+
+	@Override
+	public MemberBulkResult bulkDelete(MemberSearchCondition condition, int chunkSize, int parallelism) {
+		return executeInChunks(condition, chunkSize, parallelism, range -> {
+			// id 를 먼저 읽어 in (...) 으로 지우면 바인딩 목록이 커지고 그 사이 조건에 맞게 된 행을 놓치므로 범위 조건으로 바로 지운다
+			long rows = queryFactory
+				.delete(member)
+				.where(
+					member.id.goe(range.from()),
+					member.id.lt(range.to()),
+					usernameMatches(condition),
+					teamNameEq(condition.getTeamName()),
+					ageGoe(condition.getAgeGoe()),
+					ageLoe(condition.getAgeLoe())
+				)
+				.execute();
+			if(rows == 0) {
+				return 0;
+			}
+			memberTeamViewRepository.deleteOrphans(range.from(), range.to());
+			return rows;
+		});
+	}
+
+	private MemberBulkResult executeInChunks(MemberSearchCondition condition, int chunkSize, int parallelism,
+											 ToLongFunction<IdRange> chunkAction) {
+
+		if(chunkSize < 1 || parallelism < 1) {
+			throw new IllegalArgumentException("chunkSize, parallelism은 1 이상이어야 합니다.");
+		}
+
+		long start = System.nanoTime();
+		boolean inTransaction = TransactionSynchronizationManager.isActualTransactionActive();
+		if(inTransaction) {
+			em.flush();
+		}
+
+		List<IdRange> ranges = idRanges(condition, chunkSize);
+		LongAdder rows = new LongAdder();
+		Set<Long> teamIds = ConcurrentHashMap.newKeySet();
+		// 팀을 바꾸는 update 도 있으므로 청크 실행 전후 모두 범위 안 회원의 팀을 모은다
+		ToLongFunction<IdRange> trackedAction = range -> {
+			teamIds.addAll(teamIdsIn(range));
+			long chunkRows = chunkAction.applyAsLong(range);
+			if(chunkRows > 0) {
+				teamIds.addAll(teamIdsIn(range));
+			}
+			return chunkRows;
+		};
+
+		try {
+			if(inTransaction) {
+				for(IdRange range : ranges) {
+					rows.add(trackedAction.applyAsLong(range));
+				}
+			}
+			else {
+				executeChunksInParallel(ranges, parallelism, trackedAction, rows);
+			}
+		}
+		finally {
+			// 벌크 연산은 영속성 컨텍스트를 거치지 않으므로 남아 있는 엔티티는 모두 stale 상태
+			// 일부 청크가 실패해도 이미 커밋된 청크가 있으므로 캐시, 버전, 조회용 테이블 등은 항상 갱신한다
+			em.clear();
+			eventPublisher.publishEvent(new MemberBulkChangedEvent(condition, rows.sum(), Set.copyOf(teamIds)));
+		}
+
+		return new MemberBulkResult(rows.sum(), ranges.size(), Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	/**
+	 * 청크마다 별도 트랜잭션으로 실행하고, 커밋된 청크의 행 수를 committedRows 에 더한다.
+	 * 한 청크가 실패하면 아직 시작하지 않은 청크는 건너뛰고, 실행 중인 청크가 모두 끝난 뒤 첫 예외를 던진다.
+	 */
+	private void executeChunksInParallel(List<IdRange> ranges, int parallelism, ToLongFunction<IdRange> chunkAction,
+										 LongAdder committedRows) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(ranges.size(), 1)));
+		AtomicBoolean failed = new AtomicBoolean();
+		try {
+			List<CompletableFuture<Long>> futures = new ArrayList<>();
+			for(IdRange range : ranges) {
+				futures.add(CompletableFuture.supplyAsync(() -> {
+					if(failed.get()) {
+						return 0L;
+					}
+					try {
+						Long rows = transactionTemplate.execute(status -> chunkAction.applyAsLong(range));
+						committedRows.add(rows);
+						return rows;
+					}
+					catch(RuntimeException e) {
+						failed.set(true);
+						throw e;
+					}
+				}, executor));
+			}
+
+			RuntimeException failure = null;
+			for(CompletableFuture<Long> future : futures) {
+				try {
+					future.join();
+				}
+				catch(CompletionException e) {
+					RuntimeException cause = e.getCause() instanceof RuntimeException runtime ? runtime : e;
+					if(failure == null) {
+						failure = cause;
+					}
+					else {
+						failure.addSuppressed(cause);
+					}
+				}
+			}
+			if(failure != null) {
+				throw failure;
+			}
+		}
+		finally {
+			executor.shutdown();
+		}
+	}
+
+	private List<Long> teamIdsIn(IdRange range) {
+		return queryFactory
+			.select(member.team.id)
+			.distinct()
+			.from(member)
+			.where(
+				member.id.goe(range.from()),
+				member.id.lt(range.to()),
+				member.team.id.isNotNull()
+			)
+			.fetch();
+	}
+
+	private List<IdRange> idRanges(MemberSearchCondition condition, int chunkSize) {
+		Tuple bounds = queryFactory
+			.select(member.id.min(), member.id.max())
+			.from(member)
+			.leftJoin(member.team, team)
+			.where(
+				usernameMatches(condition),
+				teamNameEq(condition.getTeamName()),
+				ageGoe(condition.getAgeGoe()),
+				ageLoe(condition.getAgeLoe())
+			)
+			.fetchOne();
+
+		List<IdRange> ranges = new ArrayList<>();
+		Long minId = bounds == null ? null : bounds.get(member.id.min());
+		Long maxId = bounds == null ? null : bounds.get(member.id.max());
+		if(minId == null || maxId == null) {
+			return ranges;
+		}
+
+		for(long from = minId; from <= maxId; from += chunkSize) {
+			ranges.add(new IdRange(from, Math.min(from + chunkSize, maxId + 1)));
+		}
+		return ranges;
+	}
+
+	private record IdRange(long from, long to) {
+	}
+
+	private Map<Long, String> usernamesById(Predicate... where) {
+		Map<Long, String> usernames = new HashMap<>();
+		for(Tuple row : queryFactory.select(member.id, member.username).from(member).where(where).fetch()) {
+			usernames.put(row.get(member.id), row.get(member.username));
+		}
+		return usernames;
+	}
+
+	private void rewriteUsernameTrigrams(Map<Long, String> usernames) {
+		if(usernames.isEmpty()) {
+			return;
+		}
+
+		em.unwrap(Session.class).doWork(connection -> {
+			try(PreparedStatement delete = connection.prepareStatement(
+					"delete from " + UsernameTrigrams.TABLE + " where member_id = ?");
+				PreparedStatement insert = connection.prepareStatement(
+					"insert into " + UsernameTrigrams.TABLE + " (member_id, trigram) values (?, ?)")) {
+				for(Long id : usernames.keySet()) {
+					delete.setLong(1, id);
+					delete.addBatch();
+				}
+				delete.executeBatch();
+				for(Map.Entry<Long, String> entry : usernames.entrySet()) {
+					for(String trigram : UsernameTrigrams.of(entry.getValue())) {
+						insert.setLong(1, entry.getKey());
+						insert.setString(2, trigram);
+						insert.addBatch();
+					}
+				}
+				insert.executeBatch();
+			}
+		});
+	}
+
+	// size + 1건을 조회해서 다음 페이지 존재 여부를 판단 (count 쿼리 없음)
+	private Slice<MemberTeamDto> toSlice(List<MemberTeamDto> content, int size) {
+		boolean hasNext = content.size() > size;
+		if(hasNext) {
+			content = content.subList(0, size);
+		}
+		return new SliceImpl<>(content, Pageable.ofSize(size), hasNext);
+	}
+
+	// member_team_view 조건. team.name 이 같은 행에 있으므로 join 이나 team 서브쿼리 없이 (team_name, age) 인덱스를 쓴다
+	private BooleanExpression viewUsernameMatches(MemberSearchCondition condition) {
+		String username = condition.getUsername();
+		if(!StringUtils.hasText(username)) {
+			return null;
+		}
+		return switch(condition.getUsernameMatchOrDefault()) {
+			case EXACT -> memberTeamView.username.eq(username);
+			case PREFIX -> {
+				String upperBound = UsernamePredicates.prefixUpperBound(username);
+				BooleanExpression from = memberTeamView.username.goe(username);
+				yield upperBound != null ? from.and(memberTeamView.username.lt(upperBound)) : from;
+			}
+			case CONTAINS -> {
+				// trigram 은 member 에 있으므로 후보 id 는 member 기준으로 구한다
+				BooleanExpression contains = UsernamePredicates.contains(username);
+				yield memberTeamView.memberId.in(JPAExpressions.select(member.id).from(member).where(contains));
+			}
+		};
+	}
+
+	private BooleanExpression viewTeamNameEq(String teamName) {
+		return StringUtils.hasText(teamName) ? memberTeamView.teamName.eq(teamName) : null;
+	}
+
+	private BooleanExpression viewAgeGoe(Integer ageGoe) {
+		return ageGoe != null ? memberTeamView.age.goe(ageGoe) : null;
+	}
+
+	private BooleanExpression viewAgeLoe(Integer ageLoe) {
+		return ageLoe != null ? memberTeamView.age.loe(ageLoe) : null;
+	}
+
+	private BooleanExpression idAfter(MemberCursor cursor) {
+		return cursor != null ? member.id.gt(cursor.getMemberId()) : null;
+	}
+
+	private BooleanExpression ageAndIdAfter(MemberCursor cursor) {
+		if(cursor == null) {
+			return null;
+		}
+		if(cursor.getAge() == null) {
+			throw new IllegalArgumentException("나이 정렬 커서에는 age 값이 필요합니다.");
+		}
+		// age >= ? 를 앞에 둬야 (age, id) 인덱스에서 커서 위치로 바로 찾아 들어간다. or 만 있으면 인덱스 처음부터 읽는다
+		return member.age.goe(cursor.getAge())
+			.and(member.age.gt(cursor.getAge()).or(member.id.gt(cursor.getMemberId())));
 	}
 
-	private BooleanExpression usernameEq(String username) {
-		return StringUtils.hasText(username) ? member.username.eq(username) : null;
+	private BooleanExpression usernameMatches(MemberSearchCondition condition) {
+		return UsernamePredicates.matches(condition);
 	}
 
+	// left join 된 team.name 으로 거르면 H2 는 member 전체를 스캔한다 (outer join 순서는 바꾸지 않음)
+	// team_id 서브쿼리로 거르면 (team_id, age) 인덱스를 탈 수 있고, join 이 없는 벌크 update/delete 에서도 쓸 수 있다
 	private BooleanExpression teamNameEq(String teamName) {
-		return StringUtils.hasText(teamName) ? team.name.eq(teamName) : null;
+		return StringUtils.hasText(teamName)
+			? member.team.id.in(JPAExpressions.select(teamSub.id).from(teamSub).where(teamSub.name.eq(teamName)))
+			: null;
 	}
 
 	private BooleanExpression ageGoe(Integer ageGoe) {
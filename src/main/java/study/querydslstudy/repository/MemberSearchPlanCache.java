@@ -0,0 +1,135 @@
+package study.querydslstudy.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.dto.MemberTeamDto;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MemberSearchCondition 은 어떤 필드가 채워졌는지에 따라 16가지 형태의 쿼리만 만든다.
+ * 형태별로 JPQL 을 한 번만 만들어 두고 요청마다 파라미터 값만 바인딩한다.
+ * 같은 JPQL 문자열이 재사용되므로 Hibernate 의 HQL 해석 결과도 query plan cache 에서 재사용된다.
+ * 절약되는 비용은 Querydsl 의 쿼리 조립과 직렬화이므로 여기서 StringBuilder 로 JPQL 을 만드는 시간으로는 잴 수 없다.
+ * 그래서 절약 시간 추정치는 내지 않고 적중/미스 횟수만 지표로 낸다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberSearchPlanCache implements MeterBinder {
+
+	private static final int USERNAME = 1;
+	private static final int TEAM_NAME = 1 << 1;
+	private static final int AGE_GOE = 1 << 2;
+	private static final int AGE_LOE = 1 << 3;
+
+	private final EntityManager em;
+
+	private final AtomicReferenceArray<String> plans = new AtomicReferenceArray<>(16);
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	public List<MemberTeamDto> search(MemberSearchCondition condition) {
+		TypedQuery<MemberTeamDto> query = em.createQuery(plan(shapeOf(condition)), MemberTeamDto.class);
+
+		if(StringUtils.hasText(condition.getUsername())) {
+			query.setParameter("username", condition.getUsername());
+		}
+		if(StringUtils.hasText(condition.getTeamName())) {
+			query.setParameter("teamName", condition.getTeamName());
+		}
+		if(condition.getAgeGoe() != null) {
+			query.setParameter("ageGoe", condition.getAgeGoe());
+		}
+		if(condition.getAgeLoe() != null) {
+			query.setParameter("ageLoe", condition.getAgeLoe());
+		}
+
+		return query.getResultList();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("member.search.plan.requests", hitCount, AtomicLong::get)
+			.tag("result", "hit")
+			.register(registry);
+		FunctionCounter.builder("member.search.plan.requests", missCount, AtomicLong::get)
+			.tag("result", "miss")
+			.register(registry);
+	}
+
+	private String plan(int shape) {
+		String jpql = plans.get(shape);
+		if(jpql != null) {
+			hitCount.incrementAndGet();
+			return jpql;
+		}
+
+		jpql = buildJpql(shape);
+		missCount.incrementAndGet();
+
+		plans.compareAndSet(shape, null, jpql);
+		return jpql;
+	}
+
+	// MemberRepositoryImpl 의 usernameMatches(EXACT), teamNameEq, ageGoe, ageLoe 와 같은 기준
+	private static int shapeOf(MemberSearchCondition condition) {
+		int shape = 0;
+		if(StringUtils.hasText(condition.getUsername())) {
+			shape |= USERNAME;
+		}
+		if(StringUtils.hasText(condition.getTeamName())) {
+			shape |= TEAM_NAME;
+		}
+		if(condition.getAgeGoe() != null) {
+			shape |= AGE_GOE;
+		}
+		if(condition.getAgeLoe() != null) {
+			shape |= AGE_LOE;
+		}
+		return shape;
+	}
+
+	private static String buildJpql(int shape) {
+		StringBuilder jpql = new StringBuilder()
+			.append("select new ").append(MemberTeamDto.class.getName())
+			.append("(m.id, m.username, m.age, t.id, t.name)")
+			.append(" from Member m left join m.team t");
+
+		String prefix = " where ";
+		if((shape & USERNAME) != 0) {
+			jpql.append(prefix).append("m.username = :username");
+			prefix = " and ";
+		}
+		if((shape & TEAM_NAME) != 0) {
+			jpql.append(prefix).append("m.team.id in (select nt.id from Team nt where nt.name = :teamName)");
+			prefix = " and ";
+		}
+		if((shape & AGE_GOE) != 0) {
+			jpql.append(prefix).append("m.age >= :ageGoe");
+			prefix = " and ";
+		}
+		if((shape & AGE_LOE) != 0) {
+			jpql.append(prefix).append("m.age <= :ageLoe");
+		}
+		return jpql.toString();
+	}
+}
@@ -0,0 +1,91 @@
+package study.querydslstudy.repository;
+
+import com.querydsl.core.types.OrderSpecifier;
+import com.querydsl.core.types.dsl.ComparableExpressionBase;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static study.querydslstudy.entity.QMember.member;
+import static study.querydslstudy.entity.QMemberTeamView.memberTeamView;
+
+/**
+ * Pageable 의 Sort 를 Querydsl OrderSpecifier 로 바꾼다.
+ * 속성 이름은 MemberTeamDto 필드 이름이고, 정렬에 쓸 인덱스가 있는 속성만 허용한다.
+ * 정렬이 있으면 마지막에 id 를 붙여 같은 값을 가진 행의 순서를 페이지 사이에서 고정한다.
+ */
+final class MemberSort {
+
+	// member 테이블: PK, idx_member_username, idx_member_age, idx_member_team_age(team_id, age).
+	// team.name 은 join 한 쪽 인덱스라 member 정렬에 쓰이지 않으므로 뺀다(member_team_view 에서는 정렬 가능)
+	static final MemberSort MEMBER = new MemberSort(member.id, Map.of(
+		"memberId", member.id,
+		"id", member.id,
+		"username", member.username,
+		"age", member.age,
+		"teamId", member.team.id
+	));
+
+	// member_team_view: PK, username, (team_name, age), team_id, age 인덱스
+	static final MemberSort VIEW = new MemberSort(memberTeamView.memberId, Map.of(
+		"memberId", memberTeamView.memberId,
+		"id", memberTeamView.memberId,
+		"username", memberTeamView.username,
+		"age", memberTeamView.age,
+		"teamId", memberTeamView.teamId,
+		"teamName", memberTeamView.teamName
+	));
+
+	private final ComparableExpressionBase<Long> id;
+
+	private final Map<String, ComparableExpressionBase<?>> properties;
+
+	private MemberSort(ComparableExpressionBase<Long> id, Map<String, ComparableExpressionBase<?>> properties) {
+		this.id = id;
+		this.properties = properties;
+	}
+
+	/**
+	 * 정렬이 없으면 빈 배열을 돌려준다(기존처럼 order by 없음).
+	 *
+	 * @throws UnsupportedSortException 허용하지 않는 속성이거나 대소문자 무시 정렬일 때
+	 */
+	OrderSpecifier<?>[] toOrderSpecifiers(Sort sort) {
+		if(sort.isUnsorted()) {
+			return new OrderSpecifier<?>[0];
+		}
+
+		List<OrderSpecifier<?>> orders = new ArrayList<>();
+		boolean hasId = false;
+		boolean lastAscending = true;
+		for(Sort.Order order : sort) {
+			ComparableExpressionBase<?> expression = properties.get(order.getProperty());
+			if(expression == null) {
+				throw new UnsupportedSortException("정렬할 수 없는 속성입니다: " + order.getProperty()
+					+ " (인덱스가 있는 " + String.join(", ", new TreeSet<>(properties.keySet())) + " 만 정렬할 수 있습니다)");
+			}
+			if(order.isIgnoreCase()) {
+				// lower(username) 인덱스가 없어서 정렬을 위해 전체를 읽게 된다
+				throw new UnsupportedSortException("대소문자 무시 정렬은 지원하지 않습니다: " + order.getProperty());
+			}
+
+			OrderSpecifier<?> specifier = order.isAscending() ? expression.asc() : expression.desc();
+			orders.add(switch(order.getNullHandling()) {
+				case NULLS_FIRST -> specifier.nullsFirst();
+				case NULLS_LAST -> specifier.nullsLast();
+				case NATIVE -> specifier;
+			});
+			hasId |= expression == id;
+			lastAscending = order.isAscending();
+		}
+
+		// 마지막 정렬과 같은 방향으로 붙여서 (컬럼, id) 순서의 인덱스를 한 방향으로 읽을 수 있게 한다
+		if(!hasId) {
+			orders.add(lastAscending ? id.asc() : id.desc());
+		}
+		return orders.toArray(OrderSpecifier<?>[]::new);
+	}
+}
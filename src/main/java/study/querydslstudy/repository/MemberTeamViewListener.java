@@ -0,0 +1,229 @@
+package study.querydslstudy.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.FlushMode;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionEventListener;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydslstudy.dto.MemberTeamRecord;
+import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.Team;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static study.querydslstudy.repository.EntityStates.stateOf;
+import static study.querydslstudy.repository.EntityStates.teamId;
+
+/**
+ * member, team 변경을 모아 두었다가 flush 가 끝날 때 member_team_view 에 batch 로 반영한다.
+ * 같은 트랜잭션 안에서도 flush 이후 조회는 바뀐 행을 본다.
+ * 팀 이름 변경은 그 팀의 모든 회원 행에 퍼진다.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemberTeamViewListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	private final MemberTeamViewRepository memberTeamViewRepository;
+
+	@PostConstruct
+	void register() {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+			.getServiceRegistry()
+			.getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_INSERT, this);
+		registry.appendListeners(EventType.POST_UPDATE, this);
+		registry.appendListeners(EventType.POST_DELETE, this);
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if(!(event.getEntity() instanceof Member)) {
+			return;
+		}
+		EntityPersister persister = event.getPersister();
+		Object[] state = event.getState();
+		queue(event.getSession(), pending -> {
+			pending.inserted.add((Long) event.getId());
+			pending.put((Long) event.getId(), persister, state);
+		});
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		EntityPersister persister = event.getPersister();
+		Object[] state = event.getState();
+		Object[] oldState = event.getOldState();
+
+		if(event.getEntity() instanceof Member) {
+			if(oldState != null
+				&& Objects.equals(stateOf(persister, oldState, "username"), stateOf(persister, state, "username"))
+				&& Objects.equals(stateOf(persister, oldState, "age"), stateOf(persister, state, "age"))
+				&& Objects.equals(teamId(stateOf(persister, oldState, "team")), teamId(stateOf(persister, state, "team")))) {
+				return;
+			}
+			queue(event.getSession(), pending -> pending.put((Long) event.getId(), persister, state));
+		}
+		else if(event.getEntity() instanceof Team) {
+			String name = (String) stateOf(persister, state, "name");
+			if(oldState != null && Objects.equals(stateOf(persister, oldState, "name"), name)) {
+				return;
+			}
+			queue(event.getSession(), pending -> pending.renamedTeams.put((Long) event.getId(), name));
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if(event.getEntity() instanceof Member) {
+			queue(event.getSession(), pending -> pending.members.put((Long) event.getId(), null));
+		}
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	/**
+	 * 트랜잭션당 하나의 Pending 에 변경을 모으고 flush 가 끝날 때 한 번에 쓴다.
+	 * 스프링 트랜잭션 동기화가 없으면 이벤트마다 바로 쓴다.
+	 */
+	private void queue(EventSource session, Consumer<Pending> change) {
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			Pending pending = new Pending(session);
+			change.accept(pending);
+			pending.write();
+			return;
+		}
+
+		Pending pending = (Pending) TransactionSynchronizationManager.getResource(this);
+		if(pending == null) {
+			pending = new Pending(session);
+			TransactionSynchronizationManager.bindResource(this, pending);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(MemberTeamViewListener.this);
+				}
+			});
+			session.getEventListenerManager().addListener(pending);
+		}
+		change.accept(pending);
+	}
+
+	private record Row(String username, int age, Long teamId, Object team) {
+	}
+
+	/**
+	 * flush 한 번 동안의 변경. 같은 회원의 변경은 마지막 상태만 남기고, 삭제는 null 로 둔다.
+	 * 이번 flush 에서 insert 된 회원은 지울 행이 없으므로 delete batch 에서 뺀다.
+	 * flush 가 끝난 뒤(flushEnd, 자동 flush 는 partialFlushEnd) 쓰므로 같은 트랜잭션의 이후 조회는 바뀐 행을 본다.
+	 */
+	private class Pending implements SessionEventListener {
+
+		private final EventSource session;
+
+		private final Map<Long, Row> members = new LinkedHashMap<>();
+
+		private final Map<Long, String> renamedTeams = new LinkedHashMap<>();
+
+		private final Set<Long> inserted = new HashSet<>();
+
+		Pending(EventSource session) {
+			this.session = session;
+		}
+
+		void put(Long memberId, EntityPersister persister, Object[] state) {
+			Object team = stateOf(persister, state, "team");
+			members.put(memberId, new Row((String) stateOf(persister, state, "username"),
+				(Integer) stateOf(persister, state, "age"), teamId(team), team));
+		}
+
+		@Override
+		public void flushEnd(int numberOfEntities, int numberOfCollections) {
+			write();
+		}
+
+		@Override
+		public void partialFlushEnd(int numberOfEntities, int numberOfCollections) {
+			write();
+		}
+
+		void write() {
+			if(members.isEmpty() && renamedTeams.isEmpty()) {
+				return;
+			}
+			// 아래 조회가 다시 flush 를 부르더라도 같은 변경을 두 번 쓰지 않도록 먼저 비운다
+			Map<Long, Row> rows = new LinkedHashMap<>(members);
+			Map<Long, String> renamed = new LinkedHashMap<>(renamedTeams);
+			Set<Long> existing = new HashSet<>(rows.keySet());
+			existing.removeAll(inserted);
+			members.clear();
+			renamedTeams.clear();
+			inserted.clear();
+
+			Map<Long, String> teamNames = teamNames(rows.values());
+			List<MemberTeamRecord> records = new ArrayList<>(rows.size());
+			for(Map.Entry<Long, Row> entry : rows.entrySet()) {
+				Row row = entry.getValue();
+				if(row != null) {
+					records.add(new MemberTeamRecord(entry.getKey(), row.username(), row.age(), row.teamId(),
+						row.teamId() != null ? teamNames.get(row.teamId()) : null));
+				}
+			}
+			session.doWork(connection -> memberTeamViewRepository.write(connection, existing, records, renamed));
+		}
+
+		// 영속성 컨텍스트에 올라온 팀은 엔티티에서, 초기화되지 않은 프록시만 한 번의 조회로 이름을 읽는다
+		private Map<Long, String> teamNames(Collection<Row> rows) {
+			Map<Long, String> names = new HashMap<>();
+			Set<Long> unloaded = new HashSet<>();
+			for(Row row : rows) {
+				if(row == null || row.teamId() == null || names.containsKey(row.teamId())) {
+					continue;
+				}
+				if(Hibernate.isInitialized(row.team())) {
+					names.put(row.teamId(), ((Team) Hibernate.unproxy(row.team())).getName());
+				}
+				else {
+					unloaded.add(row.teamId());
+				}
+			}
+			unloaded.removeAll(names.keySet());
+			if(!unloaded.isEmpty()) {
+				session.createQuery("select t from Team t where t.id in :ids", Team.class)
+					.setParameter("ids", unloaded)
+					.setHibernateFlushMode(FlushMode.MANUAL)
+					.getResultList()
+					.forEach(team -> names.put(team.getId(), team.getName()));
+			}
+			return names;
+		}
+	}
+}
@@ -0,0 +1,198 @@
+package study.querydslstudy.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.MemberTeamRecord;
+import study.querydslstudy.dto.MemberTeamRecordMapper;
+import study.querydslstudy.entity.MemberTeamView;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * member_team_view 쓰기. 엔티티 변경은 MemberTeamViewListener 가, 벌크 연산은 MemberRepositoryImpl 이 호출한다.
+ */
+@Repository
+public class MemberTeamViewRepository {
+
+	private static final String INSERT = "insert into " + MemberTeamView.TABLE
+		+ " (member_id, username, age, team_id, team_name) values (?, ?, ?, ?, ?)";
+
+	private static final String DELETE = "delete from " + MemberTeamView.TABLE + " where member_id = ?";
+
+	private static final String RENAME_TEAM = "update " + MemberTeamView.TABLE + " set team_name = ? where team_id = ?";
+
+	// 컬럼 순서는 MemberTeamRecord 컴포넌트 순서와 같아야 한다
+	private static final String SELECT_RECORDS = "select member_id, username, age, team_id, team_name from " + MemberTeamView.TABLE
+		+ " where member_id > ? order by member_id limit ?";
+
+	private static final String SELECT_MEMBERS = "select m.member_id, m.username, m.age, m.team_id, t.name"
+		+ " from member m left join team t on t.team_id = m.team_id";
+
+	private static final String DELETE_RANGE = "delete from " + MemberTeamView.TABLE + " where member_id >= ? and member_id < ?";
+
+	private static final String INSERT_RANGE = "insert into " + MemberTeamView.TABLE + " (member_id, username, age, team_id, team_name) "
+		+ SELECT_MEMBERS + " where m.member_id >= ? and m.member_id < ?";
+
+	// 범위 안에서 member 가 없어진 행만 지운다
+	private static final String DELETE_ORPHANS = "delete from " + MemberTeamView.TABLE + " v where v.member_id >= ? and v.member_id < ?"
+		+ " and not exists (select 1 from member m where m.member_id = v.member_id)";
+
+	private final EntityManager em;
+
+	private final TransactionTemplate transactionTemplate;
+
+	public MemberTeamViewRepository(EntityManager em, PlatformTransactionManager transactionManager) {
+		this.em = em;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * afterMemberId 다음부터 id 순으로 limit 건을 읽는다. 마지막 행의 memberId 를 다음 호출에 넘겨 전체를 나눠 읽는다.
+	 * 엔티티, Object[] 를 거치지 않고 ResultSet 에서 바로 record 를 만든다.
+	 */
+	@Transactional(readOnly = true)
+	public List<MemberTeamRecord> findRecords(long afterMemberId, int limit) {
+		return em.unwrap(Session.class).doReturningWork(connection -> {
+			try(PreparedStatement select = connection.prepareStatement(SELECT_RECORDS)) {
+				select.setLong(1, afterMemberId);
+				select.setInt(2, limit);
+				List<MemberTeamRecord> records = new ArrayList<>(limit);
+				try(ResultSet rs = select.executeQuery()) {
+					int rowNum = 0;
+					while(rs.next()) {
+						records.add(MemberTeamRecordMapper.INSTANCE.mapRow(rs, rowNum++));
+					}
+				}
+				return records;
+			}
+		});
+	}
+
+	/**
+	 * 주어진 회원의 행을 member, team 의 현재 값으로 다시 쓴다. 벌크 update 의 한 청크(최대 chunkSize 건)를 받는다.
+	 */
+	public void refresh(Collection<Long> memberIds) {
+		if(memberIds.isEmpty()) {
+			return;
+		}
+		String ids = "(" + String.join(",", Collections.nCopies(memberIds.size(), "?")) + ")";
+		em.unwrap(Session.class).doWork(connection -> {
+			try(PreparedStatement delete = connection.prepareStatement(
+					"delete from " + MemberTeamView.TABLE + " where member_id in " + ids);
+				PreparedStatement insert = connection.prepareStatement(
+					"insert into " + MemberTeamView.TABLE + " (member_id, username, age, team_id, team_name) "
+						+ SELECT_MEMBERS + " where m.member_id in " + ids)) {
+				int index = 1;
+				for(Long memberId : memberIds) {
+					delete.setLong(index, memberId);
+					insert.setLong(index, memberId);
+					index++;
+				}
+				delete.executeUpdate();
+				insert.executeUpdate();
+			}
+		});
+	}
+
+	/**
+	 * member_id 가 [fromId, toId) 이고 member 가 지워진 행만 지운다. 벌크 delete 의 청크 범위를 그대로 받는다.
+	 */
+	public void deleteOrphans(long fromId, long toId) {
+		em.unwrap(Session.class).doWork(connection -> {
+			try(PreparedStatement delete = connection.prepareStatement(DELETE_ORPHANS)) {
+				delete.setLong(1, fromId);
+				delete.setLong(2, toId);
+				delete.executeUpdate();
+			}
+		});
+	}
+
+	/**
+	 * member_id 가 [fromId, toId) 인 행을 member, team 의 현재 값으로 다시 쓴다. 삭제된 회원은 행만 지워진다.
+	 * 벌크 update 중 다른 트랜잭션이 끼어들어 바뀐 행을 알 수 없을 때만 쓴다.
+	 */
+	public void refreshRange(long fromId, long toId) {
+		em.unwrap(Session.class).doWork(connection -> {
+			try(PreparedStatement delete = connection.prepareStatement(DELETE_RANGE);
+				PreparedStatement insert = connection.prepareStatement(INSERT_RANGE)) {
+				delete.setLong(1, fromId);
+				delete.setLong(2, toId);
+				insert.setLong(1, fromId);
+				insert.setLong(2, toId);
+				delete.executeUpdate();
+				insert.executeUpdate();
+			}
+		});
+	}
+
+	/**
+	 * 테이블 전체를 다시 만든다. 리스너를 거치지 않고 member, team 을 바꾼 뒤(직접 SQL 등) 사용한다.
+	 */
+	public void rebuild() {
+		transactionTemplate.executeWithoutResult(status -> em.unwrap(Session.class).doWork(connection -> {
+			try(PreparedStatement delete = connection.prepareStatement("delete from " + MemberTeamView.TABLE);
+				PreparedStatement insert = connection.prepareStatement(
+					"insert into " + MemberTeamView.TABLE + " (member_id, username, age, team_id, team_name) " + SELECT_MEMBERS)) {
+				delete.executeUpdate();
+				insert.executeUpdate();
+			}
+		}));
+	}
+
+	/**
+	 * 한 번의 flush 에서 모인 변경을 statement 종류별로 하나의 batch 로 반영한다.
+	 * memberIds(이미 행이 있을 수 있는 회원)의 행을 지운 뒤 records 를 넣으므로 update 와 delete 를 따로 구분하지 않는다.
+	 */
+	void write(Connection connection, Collection<Long> memberIds, List<MemberTeamRecord> records,
+			   Map<Long, String> renamedTeams) throws SQLException {
+		try(PreparedStatement delete = connection.prepareStatement(DELETE);
+			PreparedStatement insert = connection.prepareStatement(INSERT);
+			PreparedStatement rename = connection.prepareStatement(RENAME_TEAM)) {
+			for(Long memberId : memberIds) {
+				delete.setLong(1, memberId);
+				delete.addBatch();
+			}
+			for(MemberTeamRecord record : records) {
+				insert.setLong(1, record.memberId());
+				insert.setString(2, record.username());
+				insert.setInt(3, record.age());
+				if(record.teamId() == null) {
+					insert.setNull(4, Types.BIGINT);
+				}
+				else {
+					insert.setLong(4, record.teamId());
+				}
+				insert.setString(5, record.teamName());
+				insert.addBatch();
+			}
+			// 팀 이름 변경은 그 팀 회원 행 전체에 반영한다
+			for(Map.Entry<Long, String> team : renamedTeams.entrySet()) {
+				rename.setString(1, team.getValue());
+				rename.setLong(2, team.getKey());
+				rename.addBatch();
+			}
+			if(!memberIds.isEmpty()) {
+				delete.executeBatch();
+			}
+			if(!records.isEmpty()) {
+				insert.executeBatch();
+			}
+			if(!renamedTeams.isEmpty()) {
+				rename.executeBatch();
+			}
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package study.querydslstudy.repository;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * 페이지 count 쿼리 전용 스레드 풀과 커넥션 풀.
+ * 요청 스레드는 OSIV 로 메인 풀의 커넥션을 쥔 채 count 를 기다리므로, count 가 메인 풀에서 커넥션을 꺼내면
+ * 동시 요청이 풀 크기에 가까울 때 count 가 커넥션을 얻지 못하고 밀린다. 그래서 스레드 수만큼의 작은 풀을 따로 둔다.
+ * 풀은 spring.datasource 설정(라우팅 사용 시 primary)으로 만들고, 처음 쓸 때 커넥션을 연다.
+ * Executor 타입 빈으로 등록하면 스프링 부트 기본 applicationTaskExecutor 가 빠지므로 감싸서 등록한다.
+ */
+@Component
+public class PageCountExecutor implements DisposableBean {
+
+	private final ExecutorService executor;
+
+	private final HikariDataSource dataSource;
+
+	private final SessionFactory sessionFactory;
+
+	public PageCountExecutor(@Value("${member.search.count-threads:4}") int threads,
+							 DataSourceProperties dataSourceProperties,
+							 EntityManagerFactory entityManagerFactory,
+							 ObjectProvider<MeterRegistry> meterRegistry) {
+		this.executor = Executors.newFixedThreadPool(threads);
+		this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+		this.dataSource = dataSourceProperties.initializeDataSourceBuilder()
+			.type(HikariDataSource.class)
+			.build();
+		dataSource.setPoolName("page-count");
+		dataSource.setMaximumPoolSize(threads);
+		dataSource.setMinimumIdle(0);
+		dataSource.setReadOnly(true);
+		// hikaricp.connections.* 지표에 pool=page-count 로 함께 나온다
+		meterRegistry.ifAvailable(registry -> dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+	}
+
+	public <T> Future<T> submit(Callable<T> task) {
+		return executor.submit(task);
+	}
+
+	/**
+	 * count 전용 풀의 커넥션으로 연 읽기 전용 세션에서 work 를 실행한다. 호출한 스레드의 트랜잭션, 영속성 컨텍스트와는 무관하다.
+	 * 실행 중인 쿼리를 멈추는 수단은 쿼리 타임아웃뿐이므로 work 의 쿼리에는 타임아웃 힌트를 건다.
+	 */
+	public <T> T inCountSession(Function<EntityManager, T> work) {
+		try(Connection connection = dataSource.getConnection();
+			Session session = sessionFactory.withOptions().connection(connection).openSession()) {
+			session.setDefaultReadOnly(true);
+			return work.apply(session);
+		}
+		catch(SQLException e) {
+			throw new CannotGetJdbcConnectionException("count 커넥션을 얻지 못했습니다.", e);
+		}
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdownNow();
+		dataSource.close();
+	}
+}
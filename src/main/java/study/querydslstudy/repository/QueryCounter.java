@@ -0,0 +1,96 @@
+package study.querydslstudy.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 현재 스레드에서 실행된 SQL 을 센다. start() 로 범위를 열고 close() 로 닫는다.
+ * 같은 형태(파라미터 바인딩 전 SQL)의 select 가 warnThreshold 번 반복되면 N+1 의심으로 호출 위치와 함께 경고를 남긴다.
+ */
+@Slf4j
+@Component
+public class QueryCounter extends JdbcEventListener {
+
+	private final ThreadLocal<Scope> current = new ThreadLocal<>();
+
+	public Scope start() {
+		return start(0);
+	}
+
+	public Scope start(int warnThreshold) {
+		Scope scope = new Scope(current.get(), warnThreshold);
+		current.set(scope);
+		return scope;
+	}
+
+	@Override
+	public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+		for(Scope scope = current.get(); scope != null; scope = scope.parent) {
+			scope.record(statementInformation.getSql());
+		}
+	}
+
+	public class Scope implements AutoCloseable {
+
+		private final Scope parent;
+
+		private final int warnThreshold;
+
+		private final Map<String, Integer> selectShapes = new HashMap<>();
+
+		private int statementCount;
+
+		private int selectCount;
+
+		private Scope(Scope parent, int warnThreshold) {
+			this.parent = parent;
+			this.warnThreshold = warnThreshold;
+		}
+
+		public int getStatementCount() {
+			return statementCount;
+		}
+
+		public int getSelectCount() {
+			return selectCount;
+		}
+
+		// 가장 많이 반복된 select 형태의 실행 횟수
+		public int getMaxRepeatedSelects() {
+			return selectShapes.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+		}
+
+		private void record(String sql) {
+			statementCount++;
+			if(sql == null || !sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+				return;
+			}
+
+			selectCount++;
+			int repeated = selectShapes.merge(sql, 1, Integer::sum);
+			if(warnThreshold > 0 && repeated == warnThreshold) {
+				log.warn("N+1 의심: 같은 select 가 {}번 실행되었습니다. sql={}", repeated, sql,
+					new IllegalStateException("N+1 query detected"));
+			}
+		}
+
+		@Override
+		public void close() {
+			if(current.get() == this) {
+				if(parent == null) {
+					current.remove();
+				}
+				else {
+					current.set(parent);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,99 @@
+package study.querydslstudy.repository;
+
+import com.p6spy.engine.common.PreparedStatementInformation;
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 이벤트로 SQL 실행 시간과 처리 행 수를 수집한다.
+ * 문장 종류(select/insert/update/delete)별로 태그를 나눠서 cardinality 를 낮게 유지한다.
+ */
+@Component
+@RequiredArgsConstructor
+public class SqlMetricsListener extends JdbcEventListener {
+
+	private final MeterRegistry meterRegistry;
+
+	private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+	private final Map<String, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+	@Override
+	public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+		String kind = kindOf(statementInformation.getSql());
+		String outcome = e == null ? "success" : "error";
+		timers.computeIfAbsent(kind + ":" + outcome, key -> Timer.builder("jdbc.statement")
+				.tag("kind", kind)
+				.tag("outcome", outcome)
+				.publishPercentileHistogram()
+				.register(meterRegistry))
+			.record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public void onAfterExecuteUpdate(PreparedStatementInformation statementInformation, long timeElapsedNanos, int rowCount, SQLException e) {
+		recordRows(kindOf(statementInformation.getSql()), rowCount);
+	}
+
+	@Override
+	public void onAfterExecuteUpdate(StatementInformation statementInformation, long timeElapsedNanos, String sql, int rowCount, SQLException e) {
+		recordRows(kindOf(sql), rowCount);
+	}
+
+	@Override
+	public void onAfterExecuteBatch(StatementInformation statementInformation, long timeElapsedNanos, int[] updateCounts, SQLException e) {
+		if(updateCounts == null) {
+			return;
+		}
+		long rows = 0;
+		for(int count : updateCounts) {
+			rows += Math.max(count, 0);
+		}
+		recordRows(kindOf(statementInformation.getSql()), rows);
+	}
+
+	@Override
+	public void onAfterResultSetClose(ResultSetInformation resultSetInformation, SQLException e) {
+		// currRow 는 -1 에서 시작해서 next() 마다 증가한다
+		recordRows("select", resultSetInformation.getCurrRow() + 1);
+	}
+
+	private void recordRows(String kind, long rows) {
+		if(rows < 0) {
+			return;
+		}
+		rowSummaries.computeIfAbsent(kind, key -> DistributionSummary.builder("jdbc.statement.rows")
+				.tag("kind", kind)
+				.publishPercentileHistogram()
+				.register(meterRegistry))
+			.record(rows);
+	}
+
+	private static String kindOf(String sql) {
+		if(sql == null) {
+			return "other";
+		}
+		String trimmed = sql.stripLeading();
+		int end = 0;
+		while(end < trimmed.length() && Character.isLetter(trimmed.charAt(end))) {
+			end++;
+		}
+		String keyword = trimmed.substring(0, end).toLowerCase(Locale.ROOT);
+		return switch(keyword) {
+			case "select", "insert", "update", "delete", "merge", "call" -> keyword;
+			default -> "other";
+		};
+	}
+}
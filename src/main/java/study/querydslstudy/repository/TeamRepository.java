@@ -0,0 +1,24 @@
+package study.querydslstudy.repository;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import study.querydslstudy.entity.Team;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Long> {
+
+	@QueryHints({
+		@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+		@QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = Team.NAME_QUERY_CACHE_REGION)
+	})
+	List<Team> findByName(String name);
+
+	// 컬렉션 fetch join 이므로 페이징에는 쓰지 않는다. 팀 페이지는 findAll(Pageable) 후 members 를 배치로 초기화한다
+	@EntityGraph(Team.GRAPH_WITH_MEMBERS)
+	List<Team> findWithMembersByIdIn(Collection<Long> ids);
+}
@@ -0,0 +1,202 @@
+package study.querydslstudy.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventSource;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.Team;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static study.querydslstudy.repository.EntityStates.stateOf;
+import static study.querydslstudy.repository.EntityStates.teamId;
+
+/**
+ * 회원 insert/delete, 나이 변경, 팀 변경을 팀별 (회원 수, 나이 합) 증분으로 모아서
+ * 커밋 직전(flush 이후) team_stats 에 한 번에 반영한다.
+ * 변경 전 값이 필요하므로 JPA 엔티티 리스너가 아니라 Hibernate 이벤트(oldState)를 쓴다.
+ */
+@Component
+@RequiredArgsConstructor
+public class TeamStatsListener implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+	private final EntityManagerFactory entityManagerFactory;
+
+	private final TeamStatsRepository teamStatsRepository;
+
+	@PostConstruct
+	void register() {
+		EventListenerRegistry registry = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+			.getServiceRegistry()
+			.getService(EventListenerRegistry.class);
+		registry.appendListeners(EventType.POST_INSERT, this);
+		registry.appendListeners(EventType.POST_UPDATE, this);
+		registry.appendListeners(EventType.POST_DELETE, this);
+	}
+
+	@Override
+	public void onPostInsert(PostInsertEvent event) {
+		if(event.getEntity() instanceof Member) {
+			Long teamId = teamId(stateOf(event.getPersister(), event.getState(), "team"));
+			if(teamId != null) {
+				pending(event.getSession()).add(teamId, 1, ageOf(event.getPersister(), event.getState()));
+			}
+		}
+		else if(event.getEntity() instanceof Team) {
+			pending(event.getSession()).add((Long) event.getId(), 0, 0);
+		}
+	}
+
+	@Override
+	public void onPostUpdate(PostUpdateEvent event) {
+		if(!(event.getEntity() instanceof Member)) {
+			return;
+		}
+
+		EntityPersister persister = event.getPersister();
+		Long newTeamId = teamId(stateOf(persister, event.getState(), "team"));
+		int newAge = ageOf(persister, event.getState());
+
+		if(event.getOldState() == null) {
+			// 변경 전 상태 없이 갱신된 경우(detached update 등)는 어느 팀에서 빠졌는지 알 수 없다
+			pending(event.getSession()).rebuild = true;
+			return;
+		}
+
+		Long oldTeamId = teamId(stateOf(persister, event.getOldState(), "team"));
+		int oldAge = ageOf(persister, event.getOldState());
+		if(Objects.equals(oldTeamId, newTeamId) && oldAge == newAge) {
+			return;
+		}
+
+		Delta delta = pending(event.getSession());
+		if(oldTeamId != null) {
+			delta.add(oldTeamId, -1, -oldAge);
+		}
+		if(newTeamId != null) {
+			delta.add(newTeamId, 1, newAge);
+		}
+	}
+
+	@Override
+	public void onPostDelete(PostDeleteEvent event) {
+		if(event.getEntity() instanceof Member) {
+			Long teamId = teamId(stateOf(event.getPersister(), event.getDeletedState(), "team"));
+			if(teamId != null) {
+				pending(event.getSession()).add(teamId, -1, -ageOf(event.getPersister(), event.getDeletedState()));
+			}
+		}
+		else if(event.getEntity() instanceof Team) {
+			pending(event.getSession()).deletedTeams.add((Long) event.getId());
+		}
+	}
+
+	@Override
+	public boolean requiresPostCommitHandling(EntityPersister persister) {
+		return false;
+	}
+
+	// 벌크 연산 전에 flush 된 변경은 다시 계산한 팀의 결과에 이미 들어 있으므로 그 팀의 증분만 버린다
+	@EventListener
+	public void onBulkChanged(MemberBulkChangedEvent event) {
+		Delta delta = (Delta) TransactionSynchronizationManager.getResource(this);
+		if(delta != null) {
+			delta.forget(event.getTeamIds());
+		}
+	}
+
+	/**
+	 * 트랜잭션당 하나의 증분을 쓰고, Hibernate 가 커밋 직전 flush 를 마친 뒤 실행하는 process 로 반영한다.
+	 * 스프링 트랜잭션 동기화가 없으면 이벤트마다 따로 반영한다.
+	 */
+	private Delta pending(EventSource session) {
+		boolean synchronizationActive = TransactionSynchronizationManager.isSynchronizationActive();
+		if(synchronizationActive) {
+			Delta delta = (Delta) TransactionSynchronizationManager.getResource(this);
+			if(delta != null) {
+				return delta;
+			}
+		}
+
+		Delta delta = new Delta();
+		if(synchronizationActive) {
+			TransactionSynchronizationManager.bindResource(this, delta);
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCompletion(int status) {
+					TransactionSynchronizationManager.unbindResourceIfPossible(TeamStatsListener.this);
+				}
+			});
+		}
+		session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) s -> apply(s, delta));
+		return delta;
+	}
+
+	private void apply(SessionImplementor session, Delta delta) {
+		if(delta.isEmpty()) {
+			return;
+		}
+		session.doWork(connection -> {
+			if(delta.rebuild) {
+				teamStatsRepository.rebuild(connection);
+				return;
+			}
+			for(Map.Entry<Long, long[]> entry : delta.changes.entrySet()) {
+				teamStatsRepository.applyDelta(connection, entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+			}
+			for(Long teamId : delta.deletedTeams) {
+				teamStatsRepository.delete(connection, teamId);
+			}
+		});
+	}
+
+	private static int ageOf(EntityPersister persister, Object[] state) {
+		Object age = stateOf(persister, state, "age");
+		return age == null ? 0 : (Integer) age;
+	}
+
+	private static class Delta {
+
+		// teamId -> {회원 수 증분, 나이 합 증분}
+		private final Map<Long, long[]> changes = new HashMap<>();
+
+		private final Set<Long> deletedTeams = new HashSet<>();
+
+		private boolean rebuild;
+
+		void add(long teamId, long memberCount, long ageSum) {
+			long[] change = changes.computeIfAbsent(teamId, id -> new long[2]);
+			change[0] += memberCount;
+			change[1] += ageSum;
+		}
+
+		void forget(Set<Long> teamIds) {
+			changes.keySet().removeAll(teamIds);
+		}
+
+		boolean isEmpty() {
+			return changes.isEmpty() && deletedTeams.isEmpty() && !rebuild;
+		}
+	}
+}
@@ -0,0 +1,225 @@
+package study.querydslstudy.repository;
+
+import com.querydsl.core.Tuple;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.hibernate.jdbc.Work;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.QTeamStatsDto;
+import study.querydslstudy.dto.TeamStatsDto;
+import study.querydslstudy.entity.QTeamStats;
+import study.querydslstudy.entity.TeamStats;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static study.querydslstudy.entity.QMember.member;
+import static study.querydslstudy.entity.QTeam.team;
+
+/**
+ * 팀별 나이 통계(team_stats) 조회와 보정.
+ * 조회는 팀 수만큼의 요약 행만 읽고, member 테이블 집계는 보정(reconcile)과 재구성(rebuild)에서만 한다.
+ */
+@Slf4j
+@Repository
+public class TeamStatsRepository implements MeterBinder {
+
+	private static final QTeamStats teamStats = QTeamStats.teamStats;
+
+	// min/max 는 증분으로 유지할 수 없어서(삭제 시) (team_id, age) 인덱스로 다시 구한다
+	private static final String APPLY_DELTA = "update " + TeamStats.TABLE
+		+ " set member_count = member_count + ?, age_sum = age_sum + ?,"
+		+ " min_age = (select min(m.age) from member m where m.team_id = ?),"
+		+ " max_age = (select max(m.age) from member m where m.team_id = ?)"
+		+ " where team_id = ?";
+
+	// 요약 행이 없으면 넣고 있으면 덮어쓴다. member 에서 다시 계산한 값이라 두 트랜잭션이 같은 팀을 동시에 넣어도 결과가 같다
+	private static final String MERGE_TEAM = "merge into " + TeamStats.TABLE
+		+ " (team_id, member_count, age_sum, min_age, max_age) key(team_id)"
+		+ " select ?, count(*), coalesce(sum(m.age), 0), min(m.age), max(m.age) from member m where m.team_id = ?";
+
+	private static final String DELETE_TEAM = "delete from " + TeamStats.TABLE + " where team_id = ?";
+
+	private static final String DELETE_ALL = "delete from " + TeamStats.TABLE;
+
+	private static final String INSERT_ALL = "insert into " + TeamStats.TABLE
+		+ " (team_id, member_count, age_sum, min_age, max_age)"
+		+ " select t.team_id, count(m.member_id), coalesce(sum(m.age), 0), min(m.age), max(m.age)"
+		+ " from team t left join member m on m.team_id = t.team_id group by t.team_id";
+
+	private final EntityManager em;
+
+	private final JPAQueryFactory queryFactory;
+
+	private final TransactionTemplate transactionTemplate;
+
+	private final AtomicLong correctionCount = new AtomicLong();
+
+	public TeamStatsRepository(EntityManager em, JPAQueryFactory queryFactory, PlatformTransactionManager transactionManager) {
+		this.em = em;
+		this.queryFactory = queryFactory;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@Transactional(readOnly = true)
+	public List<TeamStatsDto> findAll() {
+		return queryFactory
+			.select(new QTeamStatsDto(
+				team.id,
+				team.name,
+				teamStats.memberCount,
+				teamStats.ageSum,
+				teamStats.minAge,
+				teamStats.maxAge
+			))
+			.from(team)
+			.leftJoin(teamStats).on(teamStats.teamId.eq(team.id))
+			.orderBy(team.id.asc())
+			.fetch();
+	}
+
+	/**
+	 * 전체 집계와 요약 테이블을 비교해서 다른 팀만 다시 계산한다. 보정한 팀 수를 돌려준다.
+	 * 동시에 커밋되는 증분과 겹치면 한 주기 늦게 맞춰질 수 있다.
+	 */
+	@Scheduled(fixedDelayString = "${member.team-stats.reconcile-interval:10m}",
+		initialDelayString = "${member.team-stats.reconcile-interval:10m}")
+	public int reconcile() {
+		Integer corrected = transactionTemplate.execute(status -> {
+			Map<Long, Tuple> stored = new HashMap<>();
+			for(Tuple row : queryFactory
+				.select(teamStats.teamId, teamStats.memberCount, teamStats.ageSum, teamStats.minAge, teamStats.maxAge)
+				.from(teamStats)
+				.fetch()) {
+				stored.put(row.get(teamStats.teamId), row);
+			}
+
+			List<Tuple> actual = queryFactory
+				.select(team.id, member.count(), member.age.sumLong(), member.age.min(), member.age.max())
+				.from(team)
+				.leftJoin(team.members, member)
+				.groupBy(team.id)
+				.fetch();
+
+			int count = 0;
+			for(Tuple row : actual) {
+				Long teamId = row.get(team.id);
+				Tuple current = stored.remove(teamId);
+				long ageSum = Objects.requireNonNullElse(row.get(member.age.sumLong()), 0L);
+				if(current == null
+					|| !Objects.equals(current.get(teamStats.memberCount), row.get(member.count()))
+					|| !Objects.equals(current.get(teamStats.ageSum), ageSum)
+					|| !Objects.equals(current.get(teamStats.minAge), row.get(member.age.min()))
+					|| !Objects.equals(current.get(teamStats.maxAge), row.get(member.age.max()))) {
+					log.warn("team stats drift: teamId={}, stored={}, actual={}", teamId, current, row);
+					doWork(connection -> recompute(connection, teamId));
+					count++;
+				}
+			}
+			for(Long staleTeamId : stored.keySet()) {
+				doWork(connection -> delete(connection, staleTeamId));
+				count++;
+			}
+			return count;
+		});
+
+		correctionCount.addAndGet(corrected);
+		return corrected;
+	}
+
+	/**
+	 * 요약 테이블 전체를 다시 만든다. 엔티티 이벤트를 거치지 않는 벌크 연산 후에 사용한다.
+	 */
+	public void rebuild() {
+		transactionTemplate.executeWithoutResult(status -> doWork(this::rebuild));
+	}
+
+	/**
+	 * 주어진 팀의 요약 행만 member 에서 다시 계산한다.
+	 */
+	public void rebuild(Collection<Long> teamIds) {
+		if(teamIds.isEmpty()) {
+			return;
+		}
+		transactionTemplate.executeWithoutResult(status -> doWork(connection -> {
+			for(Long teamId : teamIds) {
+				recompute(connection, teamId);
+			}
+		}));
+	}
+
+	// 벌크 연산이 건드린 팀만 다시 계산한다. 팀 수만큼 (team_id, age) 인덱스 범위를 읽는다
+	@EventListener
+	public void onBulkChanged(MemberBulkChangedEvent event) {
+		rebuild(event.getTeamIds());
+	}
+
+	public long getCorrectionCount() {
+		return correctionCount.get();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("team.stats.reconcile.corrections", correctionCount, AtomicLong::get)
+			.register(registry);
+	}
+
+	void applyDelta(Connection connection, long teamId, long memberCount, long ageSum) throws SQLException {
+		try(PreparedStatement update = connection.prepareStatement(APPLY_DELTA)) {
+			update.setLong(1, memberCount);
+			update.setLong(2, ageSum);
+			update.setLong(3, teamId);
+			update.setLong(4, teamId);
+			update.setLong(5, teamId);
+			if(update.executeUpdate() > 0) {
+				return;
+			}
+		}
+		// 요약 행이 없는 팀(기능 도입 전 팀 등)은 member 에서 새로 계산해서 넣는다
+		recompute(connection, teamId);
+	}
+
+	void rebuild(Connection connection) throws SQLException {
+		try(PreparedStatement deleteAll = connection.prepareStatement(DELETE_ALL);
+			PreparedStatement insertAll = connection.prepareStatement(INSERT_ALL)) {
+			deleteAll.executeUpdate();
+			insertAll.executeUpdate();
+		}
+	}
+
+	void recompute(Connection connection, long teamId) throws SQLException {
+		try(PreparedStatement merge = connection.prepareStatement(MERGE_TEAM)) {
+			merge.setLong(1, teamId);
+			merge.setLong(2, teamId);
+			merge.executeUpdate();
+		}
+	}
+
+	void delete(Connection connection, long teamId) throws SQLException {
+		try(PreparedStatement delete = connection.prepareStatement(DELETE_TEAM)) {
+			delete.setLong(1, teamId);
+			delete.executeUpdate();
+		}
+	}
+
+	private void doWork(Work work) {
+		em.unwrap(Session.class).doWork(work);
+	}
+}
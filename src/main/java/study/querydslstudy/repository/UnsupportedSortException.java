@@ -0,0 +1,15 @@
+package study.querydslstudy.repository;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 검색 API 가 허용하지 않는 정렬. 요청 오류이므로 400 으로 응답한다.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class UnsupportedSortException extends IllegalArgumentException {
+
+	public UnsupportedSortException(String message) {
+		super(message);
+	}
+}
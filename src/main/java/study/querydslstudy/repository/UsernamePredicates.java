@@ -0,0 +1,75 @@
+package study.querydslstudy.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.core.types.dsl.Expressions;
+import com.querydsl.core.types.dsl.StringPath;
+import com.querydsl.jpa.JPAExpressions;
+import org.springframework.util.StringUtils;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.entity.QMember;
+import study.querydslstudy.entity.UsernameTrigrams;
+
+import java.util.Set;
+
+import static study.querydslstudy.entity.QMember.member;
+
+/**
+ * username 검색 조건(EXACT, PREFIX, CONTAINS). member 를 검색하는 리포지토리가 모두 같은 방식으로 비교하도록 한 곳에 둔다.
+ */
+final class UsernamePredicates {
+
+	private static final QMember trigramMember = new QMember("trigramMember");
+
+	private UsernamePredicates() {
+	}
+
+	static BooleanExpression matches(MemberSearchCondition condition) {
+		String username = condition.getUsername();
+		if(!StringUtils.hasText(username)) {
+			return null;
+		}
+		return switch(condition.getUsernameMatchOrDefault()) {
+			case EXACT -> member.username.eq(username);
+			case PREFIX -> startsWith(username);
+			case CONTAINS -> contains(username);
+		};
+	}
+
+	// like 'x%' 대신 [prefix, prefix 다음 문자열) 범위로 비교해서 idx_member_username 을 range scan 한다
+	// (H2 기본 설정처럼 문자열을 collation 없이 문자 코드 순으로 비교하는 DB 기준)
+	static BooleanExpression startsWith(String prefix) {
+		BooleanExpression from = member.username.goe(prefix);
+		String upperBound = prefixUpperBound(prefix);
+		return upperBound != null ? from.and(member.username.lt(upperBound)) : from;
+	}
+
+	static String prefixUpperBound(String prefix) {
+		for(int i = prefix.length() - 1; i >= 0; i--) {
+			char c = prefix.charAt(i);
+			if(c != Character.MAX_VALUE) {
+				return prefix.substring(0, i) + (char) (c + 1);
+			}
+		}
+		return null;
+	}
+
+	// 검색어의 trigram 을 모두 가진 회원으로 먼저 좁히고(idx_member_username_trigram), 남은 후보만 like 로 확인한다
+	// 3글자 미만 검색어는 trigram 이 없으므로 like 스캔
+	static BooleanExpression contains(String term) {
+		BooleanExpression contains = member.username.contains(term);
+		Set<String> trigrams = UsernameTrigrams.of(term);
+		if(trigrams.isEmpty()) {
+			return contains;
+		}
+
+		StringPath trigram = Expressions.stringPath("trigram");
+		return member.id.in(JPAExpressions
+				.select(trigramMember.id)
+				.from(trigramMember)
+				.join(trigramMember.usernameTrigrams, trigram)
+				.where(trigram.in(trigrams))
+				.groupBy(trigramMember.id)
+				.having(trigram.count().eq((long) trigrams.size())))
+			.and(contains);
+	}
+}
@@ -17,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 import study.querydslstudy.entity.Member;
 import study.querydslstudy.entity.QMember;
 import study.querydslstudy.entity.Team;
+import study.querydslstudy.support.QueryBudget;
 
 import java.util.List;
 
@@ -363,6 +364,7 @@ public class QuerydslBasicTest {
 
 	@DisplayName("페지 조인 적용")
 	@Test
+	@QueryBudget(maxSelects = 1)
 	void fetchJoinUse() {
 
 		em.flush();
@@ -0,0 +1,41 @@
+package study.querydslstudy.controller;
+
+import jakarta.servlet.AsyncContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionLimitFilterTest {
+
+	@DisplayName("비동기 응답은 doFilter 가 아니라 응답이 끝날 때 자리를 반납")
+	@Test
+	void releaseOnAsyncComplete() throws Exception {
+
+		// given
+		AdmissionLimitFilter filter = new AdmissionLimitFilter(1, 10, 2, Duration.ZERO);
+		AtomicReference<AsyncContext> asyncContext = new AtomicReference<>();
+		MockHttpServletRequest streaming = new MockHttpServletRequest("GET", "/v1/members/export");
+		streaming.setAsyncSupported(true);
+
+		// when
+		// StreamingResponseBody 처럼 비동기로 시작하고 doFilter 를 빠져나온다
+		filter.doFilter(streaming, new MockHttpServletResponse(), (request, response) -> asyncContext.set(request.startAsync()));
+		MockHttpServletResponse whileStreaming = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/v1/members"), whileStreaming, new MockFilterChain());
+
+		asyncContext.get().complete();
+		MockHttpServletResponse afterComplete = new MockHttpServletResponse();
+		filter.doFilter(new MockHttpServletRequest("GET", "/v1/members"), afterComplete, new MockFilterChain());
+
+		// then
+		assertThat(whileStreaming.getStatus()).isEqualTo(503);
+		assertThat(afterComplete.getStatus()).isEqualTo(200);
+	}
+}
@@ -0,0 +1,43 @@
+package study.querydslstudy.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 레플리카가 primary 와 같은 DB 를 가리키게 해서 라우팅만 켠다.
+ */
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+	"member.datasource.routing.enabled=true",
+	"member.datasource.health-check-interval-ms=3600000",
+	"member.datasource.replicas[0].url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+	"member.datasource.replicas[0].username=sa"
+})
+@AutoConfigureMockMvc
+class MemberControllerRoutingTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@DisplayName("레플리카 라우팅을 쓰면 ETag 를 내지 않고 If-None-Match 도 무시")
+	@Test
+	void noConditionalGetWithReplicaRouting() throws Exception {
+
+		// when, then
+		mockMvc.perform(get("/v2/members").header(HttpHeaders.IF_NONE_MATCH, "*"))
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist(HttpHeaders.ETAG));
+		mockMvc.perform(get("/v3/members"))
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist(HttpHeaders.ETAG));
+	}
+}
@@ -0,0 +1,99 @@
+package study.querydslstudy.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydslstudy.dto.MemberCursor;
+import study.querydslstudy.entity.Member;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+	@Autowired
+	MockMvc mockMvc;
+
+	@Autowired
+	EntityManager em;
+
+	@DisplayName("v3 count 모드 - exact, estimate 외의 값은 400")
+	@Test
+	void searchMemberV3CountMode() throws Exception {
+
+		// when, then
+		mockMvc.perform(get("/v3/members").param("count", "estimate"))
+			.andExpect(status().isOk());
+		mockMvc.perform(get("/v3/members").param("count", "exact"))
+			.andExpect(status().isOk());
+		mockMvc.perform(get("/v3/members").param("count", "approx"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.detail").value("count 는 exact, estimate 중 하나여야 합니다: approx"));
+	}
+
+	@DisplayName("v2, v3 같은 요청을 If-None-Match 로 다시 보내면 304, 데이터가 바뀐 뒤에는 200")
+	@Test
+	void searchMemberNotModified() throws Exception {
+
+		// given
+		em.persist(new Member("member1", 10));
+		em.flush();
+
+		for(String uri : List.of("/v2/members", "/v3/members")) {
+			String etag = mockMvc.perform(get(uri).param("page", "0").param("size", "10"))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+
+			// when, then
+			mockMvc.perform(get(uri).param("page", "0").param("size", "10").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isNotModified());
+
+			em.persist(new Member("member2", 20));
+			em.flush();
+
+			mockMvc.perform(get(uri).param("page", "0").param("size", "10").header(HttpHeaders.IF_NONE_MATCH, etag))
+				.andExpect(status().isOk())
+				.andExpect(header().string(HttpHeaders.ETAG, not(etag)));
+		}
+	}
+
+	@DisplayName("v4 잘못된 커서, 정렬, size 는 400")
+	@Test
+	void searchMemberV4BadParameter() throws Exception {
+
+		// given
+		String idCursor = MemberCursor.of(1L).encode();
+
+		// when, then
+		mockMvc.perform(get("/v4/members").param("cursor", "!!not-a-cursor"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.detail").value("잘못된 커서입니다: !!not-a-cursor"));
+		mockMvc.perform(get("/v4/members").param("sort", "age").param("cursor", idCursor))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.detail").value("sort=age 에 맞지 않는 커서입니다: " + idCursor));
+		mockMvc.perform(get("/v4/members").param("sort", "username"))
+			.andExpect(status().isBadRequest())
+			.andExpect(jsonPath("$.detail").value("sort 는 id, age 중 하나여야 합니다: username"));
+		mockMvc.perform(get("/v4/members").param("size", "0"))
+			.andExpect(status().isBadRequest());
+		mockMvc.perform(get("/v4/members").param("sort", "age").param("cursor", MemberCursor.of(20, 1L).encode()))
+			.andExpect(status().isOk());
+	}
+}
@@ -0,0 +1,86 @@
+package study.querydslstudy.datasource;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+	"spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+	"member.datasource.routing.enabled=true",
+	"member.datasource.health-check-interval-ms=3600000",
+	"member.datasource.replicas[0].url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+	"member.datasource.replicas[0].username=sa"
+})
+class ReplicaRoutingDataSourceTest {
+
+	@Autowired
+	JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Autowired
+	ReplicaHealthChecker replicaHealthChecker;
+
+	@Autowired
+	MeterRegistry meterRegistry;
+
+	@AfterEach
+	void after() {
+		replicaHealthChecker.getRoutingDataSource().markHealthy("replica-0", true);
+	}
+
+	@DisplayName("읽기 전용 트랜잭션은 레플리카, 쓰기 트랜잭션은 primary")
+	@Test
+	void routing() {
+
+		// when
+		String readDatabase = databaseName(true);
+		String writeDatabase = databaseName(false);
+
+		// then
+		assertThat(readDatabase).isEqualToIgnoringCase("replica");
+		assertThat(writeDatabase).isEqualToIgnoringCase("primary");
+	}
+
+	@DisplayName("레플리카 장애 시 primary 로 대체")
+	@Test
+	void fallbackToPrimary() {
+
+		// given
+		replicaHealthChecker.getRoutingDataSource().markHealthy("replica-0", false);
+
+		// when
+		String readDatabase = databaseName(true);
+
+		// then
+		assertThat(readDatabase).isEqualToIgnoringCase("primary");
+	}
+
+	@DisplayName("primary, 레플리카 풀의 hikaricp 지표 등록")
+	@Test
+	void poolMetrics() {
+
+		// when
+		databaseName(true);
+		databaseName(false);
+
+		// then
+		assertThat(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "primary").timer()).isNotNull();
+		assertThat(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "replica-0").timer()).isNotNull();
+	}
+
+	private String databaseName(boolean readOnly) {
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		transactionTemplate.setReadOnly(readOnly);
+		return transactionTemplate.execute(status -> jdbcTemplate.queryForObject("select database()", String.class));
+	}
+}
@@ -6,9 +6,12 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import study.querydslstudy.repository.QueryCounter;
 
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest
 @Transactional
 class MemberTest {
@@ -16,6 +19,9 @@ class MemberTest {
 	@Autowired
 	EntityManager em;
 
+	@Autowired
+	QueryCounter queryCounter;
+
 	@DisplayName("멤버, 팀 엔티티 생성 확인")
 	@Test
 	void memberTest() {
@@ -49,4 +55,41 @@ class MemberTest {
 			System.out.println("-> member.team = " + member.getTeam());
 		}
 	}
-}
\ No newline at end of file
+
+	@DisplayName("지연 로딩 N+1 확인 - 배치 초기화")
+	@Test
+	void lazyLoadingNPlusOne() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+
+		em.flush();
+		em.clear();
+
+		// when
+		int selectCount;
+		int maxRepeated;
+		try(QueryCounter.Scope scope = queryCounter.start()) {
+			List<Member> members = em.createQuery("select m from Member m", Member.class)
+				.getResultList();
+			for(Member member : members) {
+				member.getTeam().getName();
+			}
+			selectCount = scope.getSelectCount();
+			maxRepeated = scope.getMaxRepeatedSelects();
+		}
+
+		// then
+		// default_batch_fetch_size 로 두 팀 프록시가 in 절 select 한 번에 초기화된다 (배치가 없으면 1 + 2)
+		assertThat(selectCount).isEqualTo(1 + 1);
+		assertThat(maxRepeated).isEqualTo(1);
+	}
+}
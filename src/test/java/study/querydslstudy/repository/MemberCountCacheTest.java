@@ -0,0 +1,38 @@
+package study.querydslstudy.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import study.querydslstudy.dto.MemberSearchCondition;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MemberCountCacheTest {
+
+	@DisplayName("count 계산 중 무효화되면 그 결과는 캐시하지 않음")
+	@Test
+	void invalidatedWhileCounting() {
+
+		// given
+		MemberCountCache cache = new MemberCountCache(10, Duration.ofMinutes(1));
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+
+		// when
+		// 계산하는 동안 다른 스레드의 변경으로 무효화된 상황
+		long stale = cache.get(condition, () -> {
+			cache.invalidateAll();
+			return 4;
+		});
+		long fresh = cache.get(condition, () -> 5);
+		long cached = cache.get(condition, () -> 6);
+
+		// then
+		assertThat(stale).isEqualTo(4);
+		assertThat(fresh).isEqualTo(5);
+		assertThat(cached).isEqualTo(5);
+		assertThat(cache.getMissCount()).isEqualTo(2);
+		assertThat(cache.getHitCount()).isEqualTo(1);
+	}
+}
@@ -11,6 +11,7 @@ import study.querydslstudy.dto.MemberTeamDto;
 import study.querydslstudy.entity.Member;
 import study.querydslstudy.entity.Team;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -126,4 +127,74 @@ class MemberJpaRepositoryTest {
 		// then
 		assertThat(result).extracting("username").containsExactly("member3", "member4");
 	}
-}
\ No newline at end of file
+
+	@DisplayName("forEachByWhereParam")
+	@Test
+	void forEachByWhereParam() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		Member member1 = new Member("member1", 10, teamA);
+		Member member2 = new Member("member2", 20, teamA);
+
+		Member member3 = new Member("member3", 30, teamB);
+		Member member4 = new Member("member4", 40, teamB);
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.persist(member4);
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(20);
+		condition.setAgeLoe(40);
+		condition.setTeamName("teamB");
+
+		// when
+		List<MemberTeamDto> result = new ArrayList<>();
+		long count = memberJpaRepository.forEachByWhereParam(condition, result::add);
+
+		// then
+		assertThat(count).isEqualTo(2);
+		assertThat(result).extracting("username").containsExactly("member3", "member4");
+	}
+
+	@DisplayName("searchByWhereParam, searchByBuilder, forEachByWhereParam - username prefix, contains 검색")
+	@Test
+	void searchByUsernameMatch() {
+
+		// given
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+
+		em.persist(new Member("alice", 10, teamA));
+		em.persist(new Member("malice", 20, teamA));
+		em.persist(new Member("bob", 30, teamA));
+		em.flush();
+		em.clear();
+
+		MemberSearchCondition prefix = new MemberSearchCondition();
+		prefix.setUsername("ali");
+		prefix.setUsernameMatch(MemberSearchCondition.UsernameMatch.PREFIX);
+
+		MemberSearchCondition contains = new MemberSearchCondition();
+		contains.setUsername("lic");
+		contains.setUsernameMatch(MemberSearchCondition.UsernameMatch.CONTAINS);
+
+		// when
+		List<MemberTeamDto> prefixResult = memberJpaRepository.searchByWhereParam(prefix);
+		List<MemberTeamDto> containsResult = memberJpaRepository.searchByWhereParam(contains);
+		List<MemberTeamDto> builderResult = memberJpaRepository.searchByBuilder(contains);
+		List<MemberTeamDto> exported = new ArrayList<>();
+		memberJpaRepository.forEachByWhereParam(contains, exported::add);
+
+		// then
+		assertThat(prefixResult).extracting("username").containsExactly("alice");
+		assertThat(containsResult).extracting("username").containsExactlyInAnyOrder("alice", "malice");
+		assertThat(builderResult).extracting("username").containsExactlyInAnyOrder("alice", "malice");
+		assertThat(exported).extracting("username").containsExactlyInAnyOrder("alice", "malice");
+	}
+}
@@ -0,0 +1,150 @@
+package study.querydslstudy.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 인덱스는 커밋 후 백그라운드에서 적재되므로 트랜잭션을 직접 커밋하고 적재를 기다린다.
+ */
+@SpringBootTest(properties = {"member.memory-index.enabled=true", "member.memory-index.reload-delay=0s"})
+class MemberMemoryIndexTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	MemberMemoryIndex memberMemoryIndex;
+
+	@Autowired
+	QueryCounter queryCounter;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	TransactionTemplate transactionTemplate;
+
+	List<Long> teamIds = new ArrayList<>();
+
+	@BeforeEach
+	void before() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	void after() {
+		transactionTemplate.executeWithoutResult(status -> {
+			for(Long teamId : teamIds) {
+				em.createQuery("select m from Member m where m.team.id = :teamId", Member.class)
+					.setParameter("teamId", teamId)
+					.getResultList()
+					.forEach(em::remove);
+				em.remove(em.find(Team.class, teamId));
+			}
+		});
+	}
+
+	@DisplayName("search, searchPageComplex - 커밋 후 적재된 인덱스로 select 없이 응답하고, 쓰는 중에는 DB 로 조회")
+	@Test
+	void searchFromIndex() throws InterruptedException {
+
+		// given
+		Long teamAId = transactionTemplate.execute(status -> {
+			Team teamA = new Team("teamA");
+			Team teamB = new Team("teamB");
+			em.persist(teamA);
+			em.persist(teamB);
+			teamIds.add(teamA.getId());
+			teamIds.add(teamB.getId());
+
+			em.persist(new Member("member1", 10, teamA));
+			em.persist(new Member("member2", 20, teamA));
+			em.persist(new Member("member3", 30, teamB));
+			return teamA.getId();
+		});
+		awaitIndexSize(3);
+
+		MemberSearchCondition teamACondition = new MemberSearchCondition();
+		teamACondition.setTeamName("teamA");
+
+		// when
+		List<MemberTeamDto> result;
+		Page<MemberTeamDto> page;
+		int selects;
+		try(QueryCounter.Scope scope = queryCounter.start()) {
+			result = memberRepository.search(teamACondition);
+			page = memberRepository.searchPageComplex(new MemberSearchCondition(), PageRequest.of(1, 2));
+			selects = scope.getSelectCount();
+		}
+
+		// 쓰기 트랜잭션이 끝나기 전에는 인덱스를 쓰지 않고, 커밋 후 다시 적재한다
+		List<MemberTeamDto> duringWrite = transactionTemplate.execute(status -> {
+			em.persist(new Member("member4", 40, em.find(Team.class, teamAId)));
+			em.flush();
+			return memberRepository.search(teamACondition);
+		});
+		awaitIndexSize(4);
+		List<MemberTeamDto> afterCommit = memberRepository.search(teamACondition);
+
+		// then
+		assertThat(selects).isZero();
+		assertThat(result).extracting("username").containsExactly("member1", "member2");
+		assertThat(page.getTotalElements()).isEqualTo(3);
+		assertThat(page.getContent()).extracting("username").containsExactly("member3");
+		assertThat(duringWrite).extracting("username").containsExactlyInAnyOrder("member1", "member2", "member4");
+		assertThat(afterCommit).extracting("username").containsExactly("member1", "member2", "member4");
+	}
+
+	@DisplayName("스냅샷 빌더 - 초기 용량을 넘는 행도 순서대로 적재")
+	@Test
+	void snapshotBuilder() {
+
+		// given
+		MemberMemoryIndex.Snapshot.Builder builder = new MemberMemoryIndex.Snapshot.Builder();
+		for(long id = 1; id <= 3000; id++) {
+			builder.add(id, "member" + id, (int) (id % 50), id % 2 == 0 ? 1L : null, id % 2 == 0 ? "teamA" : null);
+		}
+
+		// when
+		MemberMemoryIndex.Snapshot snapshot = builder.build();
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+		condition.setAgeGoe(48);
+
+		// then
+		assertThat(snapshot.size()).isEqualTo(3000);
+		assertThat(snapshot.count(condition)).isEqualTo(60);
+		assertThat(snapshot.search(condition).get(0)).extracting("memberId", "username", "teamId")
+			.containsExactly(48L, "member48", 1L);
+	}
+
+	private void awaitIndexSize(int size) throws InterruptedException {
+		long deadline = System.nanoTime() + 5_000_000_000L;
+		while(memberMemoryIndex.current() == null || memberMemoryIndex.size() != size) {
+			if(System.nanoTime() - deadline > 0) {
+				throw new AssertionError("인메모리 인덱스가 적재되지 않았습니다. rows=" + memberMemoryIndex.size());
+			}
+			Thread.sleep(10);
+		}
+	}
+}
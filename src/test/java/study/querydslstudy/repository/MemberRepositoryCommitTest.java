@@ -0,0 +1,225 @@
+package study.querydslstudy.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.CountedPage;
+import study.querydslstudy.dto.MemberBulkResult;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.Team;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static study.querydslstudy.entity.QMember.member;
+
+/**
+ * 별도 커넥션(count 전용 풀, 청크별 트랜잭션, 백그라운드 통계)에서 실행되는 경로는 커밋된 데이터만 보므로
+ * 롤백되는 @Transactional 테스트 대신 트랜잭션을 직접 커밋하고 정리한다.
+ */
+@SpringBootTest(properties = "member.count-estimate.exact-threshold=3")
+class MemberRepositoryCommitTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	MemberCountCache memberCountCache;
+
+	@Autowired
+	MemberCountEstimator memberCountEstimator;
+
+	@Autowired
+	MemberDataVersion memberDataVersion;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	TransactionTemplate transactionTemplate;
+
+	List<Long> teamIds = new ArrayList<>();
+
+	@BeforeEach
+	void before() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	void after() {
+		transactionTemplate.executeWithoutResult(status -> {
+			for(Long teamId : teamIds) {
+				em.createQuery("select m from Member m where m.team.id = :teamId", Member.class)
+					.setParameter("teamId", teamId)
+					.getResultList()
+					.forEach(em::remove);
+				em.remove(em.find(Team.class, teamId));
+			}
+		});
+	}
+
+	@DisplayName("searchPageConcurrent - 트랜잭션 밖에서는 count 를 count 전용 풀에서 실행")
+	@Test
+	void searchPageConcurrent() {
+
+		// given
+		transactionTemplate.executeWithoutResult(status -> {
+			Team teamA = new Team("teamA");
+			Team teamB = new Team("teamB");
+			em.persist(teamA);
+			em.persist(teamB);
+			teamIds.add(teamA.getId());
+			teamIds.add(teamB.getId());
+
+			em.persist(new Member("member1", 10, teamA));
+			em.persist(new Member("member2", 20, teamA));
+			em.persist(new Member("member3", 30, teamB));
+			em.persist(new Member("member4", 40, teamB));
+		});
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		MemberSearchCondition teamACondition = new MemberSearchCondition();
+		teamACondition.setTeamName("teamA");
+		long missCount = memberCountCache.getMissCount();
+
+		// when
+		Page<MemberTeamDto> firstPage = memberRepository.searchPageConcurrent(condition, PageRequest.of(0, 3), Duration.ofSeconds(5));
+		Page<MemberTeamDto> lastPage = memberRepository.searchPageConcurrent(condition, PageRequest.of(1, 3), Duration.ofSeconds(5));
+		Page<MemberTeamDto> teamAPage = memberRepository.searchPageConcurrent(teamACondition, PageRequest.of(0, 1), Duration.ofSeconds(5));
+
+		// then
+		assertThat(firstPage.getTotalElements()).isEqualTo(4);
+		assertThat(firstPage.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+		assertThat(lastPage.getTotalElements()).isEqualTo(4);
+		assertThat(lastPage.getContent()).extracting("username").containsExactly("member4");
+		assertThat(teamAPage.getTotalElements()).isEqualTo(2);
+		assertThat(teamAPage.getContent()).extracting("username").containsExactly("member1");
+		// 마지막 페이지는 content 로 total 을 알 수 있으므로 count 를 기다리지 않는다. 나머지 두 번은 count 전용 풀에서 센다
+		assertThat(memberCountCache.getMissCount() - missCount).isGreaterThanOrEqualTo(2);
+	}
+
+	@DisplayName("searchPageEstimated - 통계가 있고 추정치가 exact-threshold 이상이면 추정 total")
+	@Test
+	void searchPageEstimated() {
+
+		// given
+		transactionTemplate.executeWithoutResult(status -> {
+			Team teamA = new Team("teamA");
+			Team teamB = new Team("teamB");
+			em.persist(teamA);
+			em.persist(teamB);
+			teamIds.add(teamA.getId());
+			teamIds.add(teamB.getId());
+
+			for(int i = 0; i < 8; i++) {
+				em.persist(new Member("member" + i, 10 + i, i < 6 ? teamA : teamB));
+			}
+		});
+		memberCountEstimator.refresh();
+
+		MemberSearchCondition teamACondition = new MemberSearchCondition();
+		teamACondition.setTeamName("teamA");
+		MemberSearchCondition teamBCondition = new MemberSearchCondition();
+		teamBCondition.setTeamName("teamB");
+
+		// when
+		CountedPage<MemberTeamDto> teamAPage = memberRepository.searchPageEstimated(teamACondition, PageRequest.of(0, 2));
+		CountedPage<MemberTeamDto> teamBPage = memberRepository.searchPageEstimated(teamBCondition, PageRequest.of(0, 1));
+
+		// then
+		// 통계 전체 8명 중 teamA 6명 -> 8 * 6/8 = 6
+		assertThat(teamAPage.isTotalExact()).isFalse();
+		assertThat(teamAPage.getTotalElements()).isEqualTo(6);
+		assertThat(teamAPage.getContent()).hasSize(2);
+		// 추정치 2 가 exact-threshold(3) 보다 작으면 정확한 count 를 사용한다
+		assertThat(teamBPage.isTotalExact()).isTrue();
+		assertThat(teamBPage.getTotalElements()).isEqualTo(2);
+	}
+
+	@DisplayName("bulkUpdate 병렬 - 청크마다 커밋")
+	@Test
+	void bulkUpdateParallel() {
+
+		// given
+		saveTeamMembers(6);
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+
+		// when
+		MemberBulkResult result = memberRepository.bulkUpdate(condition, update -> update.set(member.age, 99), 2, 2);
+
+		// then
+		assertThat(result.getRows()).isEqualTo(6);
+		assertThat(result.getChunks()).isEqualTo(3);
+		assertThat(countAge(99)).isEqualTo(6);
+	}
+
+	@DisplayName("bulkUpdate 병렬 - 청크가 실패해도 커밋된 청크 기준으로 캐시, 버전을 갱신")
+	@Test
+	void bulkUpdateParallelChunkFailure() {
+
+		// given
+		saveTeamMembers(6);
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+
+		// count 를 캐시에 올려 둔다
+		memberRepository.searchPageComplex(condition, PageRequest.of(0, 2));
+		assertThat(memberCountCache.size()).isPositive();
+		long version = memberDataVersion.getVersion();
+
+		AtomicInteger chunkCalls = new AtomicInteger();
+
+		// when
+		assertThatThrownBy(() -> memberRepository.bulkUpdate(condition, update -> {
+			if(chunkCalls.incrementAndGet() == 2) {
+				throw new IllegalStateException("chunk failed");
+			}
+			update.set(member.age, 99);
+		}, 2, 2))
+			.isInstanceOf(IllegalStateException.class)
+			.hasMessage("chunk failed");
+
+		// then
+		// 실패한 청크는 롤백되고, 나머지는 실행 순서에 따라 커밋되거나 건너뛴다
+		long updated = countAge(99);
+		assertThat(updated).isBetween(2L, 4L);
+		assertThat(updated % 2).isZero();
+		assertThat(memberDataVersion.getVersion()).isGreaterThan(version);
+		assertThat(memberCountCache.size()).isZero();
+	}
+
+	private void saveTeamMembers(int count) {
+		transactionTemplate.executeWithoutResult(status -> {
+			Team teamA = new Team("teamA");
+			em.persist(teamA);
+			teamIds.add(teamA.getId());
+			for(int i = 0; i < count; i++) {
+				em.persist(new Member("member" + i, 10 + i, teamA));
+			}
+		});
+	}
+
+	private long countAge(int age) {
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(age);
+		condition.setAgeLoe(age);
+		return memberRepository.countByCondition(condition);
+	}
+}
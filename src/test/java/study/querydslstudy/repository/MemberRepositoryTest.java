@@ -7,15 +7,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import study.querydslstudy.dto.CountedPage;
+import study.querydslstudy.dto.MemberBulkResult;
+import study.querydslstudy.dto.MemberCursor;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydslstudy.dto.MemberSearchCondition;
 import study.querydslstudy.dto.MemberTeamDto;
+import study.querydslstudy.dto.MemberTeamRecord;
 import study.querydslstudy.entity.Member;
 import study.querydslstudy.entity.Team;
 
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 import static study.querydslstudy.entity.QMember.member;
 
 @SpringBootTest
@@ -28,6 +38,24 @@ class MemberRepositoryTest {
 	@Autowired
 	MemberRepository memberRepository;
 
+	@Autowired
+	MemberCountCache memberCountCache;
+
+	@Autowired
+	MemberSearchPlanCache memberSearchPlanCache;
+
+	@Autowired
+	MemberDataVersion memberDataVersion;
+
+	@Autowired
+	MemberMemoryIndex memberMemoryIndex;
+
+	@Autowired
+	QueryCounter queryCounter;
+
+	@Autowired
+	MemberTeamViewRepository memberTeamViewRepository;
+
 	@DisplayName("basicTest")
 	@Test
 	void basicTest() {
@@ -79,6 +107,40 @@ class MemberRepositoryTest {
 		assertThat(result).extracting("username").containsExactly("member3", "member4");
 	}
 
+	@DisplayName("search 쿼리 형태별 plan 재사용")
+	@Test
+	void searchPlanReuse() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+
+		MemberSearchCondition condition1 = new MemberSearchCondition();
+		condition1.setTeamName("teamA");
+		condition1.setAgeGoe(15);
+
+		MemberSearchCondition condition2 = new MemberSearchCondition();
+		condition2.setTeamName("teamB");
+		condition2.setAgeGoe(35);
+
+		// when
+		List<MemberTeamDto> result1 = memberRepository.search(condition1);
+		long hitCount = memberSearchPlanCache.getHitCount();
+		List<MemberTeamDto> result2 = memberRepository.search(condition2);
+
+		// then
+		assertThat(result1).extracting("username").containsExactly("member2");
+		assertThat(result2).extracting("username").containsExactly("member4");
+		assertThat(memberSearchPlanCache.getHitCount()).isEqualTo(hitCount + 1);
+	}
+
 	@DisplayName("searchPageSimple")
 	@Test
 	void searchPageSimple() {
@@ -110,6 +172,565 @@ class MemberRepositoryTest {
 		assertThat(result.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
 	}
 
+	@DisplayName("searchPage 정렬 - 같은 값은 id 로 순서 고정, 인덱스 없는 정렬은 거부")
+	@Test
+	void searchPageSorted() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 20, teamA));
+		em.persist(new Member("member2", 10, teamB));
+		em.persist(new Member("member3", 20, teamA));
+		em.persist(new Member("member4", 10, teamA));
+		em.persist(new Member("member5", 30, teamB));
+		em.flush();
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		Sort byAgeDesc = Sort.by(Sort.Direction.DESC, "age");
+
+		// when
+		List<String> simple = new ArrayList<>();
+		List<String> complex = new ArrayList<>();
+		for(int page = 0; page < 3; page++) {
+			PageRequest pageRequest = PageRequest.of(page, 2, byAgeDesc);
+			memberRepository.searchPageSimple(condition, pageRequest).forEach(dto -> simple.add(dto.getUsername()));
+			memberRepository.searchPageComplex(condition, pageRequest).forEach(dto -> complex.add(dto.getUsername()));
+		}
+		Page<MemberTeamDto> viewByTeamName = memberRepository.searchPageFromView(condition, PageRequest.of(0, 10, Sort.by("teamName")));
+
+		// then
+		assertThat(simple).containsExactly("member5", "member3", "member1", "member4", "member2");
+		assertThat(complex).isEqualTo(simple);
+		assertThat(viewByTeamName.getContent()).extracting("username")
+			.containsExactly("member1", "member3", "member4", "member2", "member5");
+
+		// team.name 은 member 정렬에 쓸 인덱스가 없다
+		assertThatThrownBy(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10, Sort.by("teamName"))))
+			.isInstanceOf(UnsupportedSortException.class)
+			.hasMessageContaining("teamName");
+		assertThatThrownBy(() -> memberRepository.searchPageSimple(condition, PageRequest.of(0, 10, Sort.by(Sort.Order.asc("username").ignoreCase()))))
+			.isInstanceOf(UnsupportedSortException.class);
+	}
+
+	@DisplayName("searchPageComplex count 캐시")
+	@Test
+	void searchPageComplexCountCache() {
+
+		// given
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamA));
+		em.persist(new Member("member4", 40, teamA));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+		PageRequest pageRequest = PageRequest.of(0, 3);
+
+		// when
+		long total1 = memberRepository.searchPageComplex(condition, pageRequest).getTotalElements();
+		long missCount = memberCountCache.getMissCount();
+		long hitCount = memberCountCache.getHitCount();
+		long total2 = memberRepository.searchPageComplex(condition, pageRequest).getTotalElements();
+		long hitCountAfterRepeat = memberCountCache.getHitCount();
+
+		memberRepository.save(new Member("member5", 50, teamA));
+		long total3 = memberRepository.searchPageComplex(condition, pageRequest).getTotalElements();
+
+		// then
+		assertThat(total1).isEqualTo(4);
+		assertThat(total2).isEqualTo(4);
+		assertThat(hitCountAfterRepeat).isEqualTo(hitCount + 1);
+		assertThat(total3).isEqualTo(5);
+		assertThat(memberCountCache.getMissCount()).isEqualTo(missCount + 1);
+	}
+
+	@DisplayName("countByCondition, existsByCondition")
+	@Test
+	void countAndExistsByCondition() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, null));
+
+		MemberSearchCondition teamACondition = new MemberSearchCondition();
+		teamACondition.setTeamName("teamA");
+
+		MemberSearchCondition ageCondition = new MemberSearchCondition();
+		ageCondition.setAgeGoe(25);
+
+		MemberSearchCondition noMatch = new MemberSearchCondition();
+		noMatch.setTeamName("teamB");
+		noMatch.setAgeGoe(35);
+
+		// when, then
+		assertThat(memberRepository.countByCondition(teamACondition)).isEqualTo(2);
+		assertThat(memberRepository.countByCondition(ageCondition)).isEqualTo(2);
+		assertThat(memberRepository.existsByCondition(ageCondition)).isTrue();
+		assertThat(memberRepository.existsByCondition(noMatch)).isFalse();
+	}
+
+	@DisplayName("searchPageConcurrent")
+	@Test
+	void searchPageConcurrent() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		// when
+		Page<MemberTeamDto> firstPage = memberRepository.searchPageConcurrent(condition, PageRequest.of(0, 3), Duration.ofSeconds(5));
+		Page<MemberTeamDto> lastPage = memberRepository.searchPageConcurrent(condition, PageRequest.of(1, 3), Duration.ofSeconds(5));
+
+		// then
+		assertThat(firstPage.getTotalElements()).isEqualTo(4);
+		assertThat(firstPage.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+		assertThat(lastPage.getTotalElements()).isEqualTo(4);
+		assertThat(lastPage.getContent()).extracting("username").containsExactly("member4");
+	}
+
+	@DisplayName("searchPageEstimated")
+	@Test
+	void searchPageEstimated() {
+
+		// given
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamA));
+		em.persist(new Member("member4", 40, teamA));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+
+		// when
+		CountedPage<MemberTeamDto> lastPage = memberRepository.searchPageEstimated(condition, PageRequest.of(1, 3));
+		CountedPage<MemberTeamDto> firstPage = memberRepository.searchPageEstimated(condition, PageRequest.of(0, 3));
+
+		// then
+		assertThat(lastPage.isTotalExact()).isTrue();
+		assertThat(lastPage.getTotalElements()).isEqualTo(4);
+		// 추정치가 exact-threshold 보다 작으면 정확한 count 를 사용한다
+		assertThat(firstPage.isTotalExact()).isTrue();
+		assertThat(firstPage.getTotalElements()).isEqualTo(4);
+	}
+
+	@DisplayName("username prefix, contains 검색")
+	@Test
+	void searchByUsernamePrefixAndContains() {
+
+		// given
+		em.persist(new Member("alice", 10));
+		em.persist(new Member("alicia", 20));
+		em.persist(new Member("malice", 30));
+		em.persist(new Member("bob", 40));
+
+		MemberSearchCondition prefix = new MemberSearchCondition();
+		prefix.setUsername("ali");
+		prefix.setUsernameMatch(MemberSearchCondition.UsernameMatch.PREFIX);
+
+		MemberSearchCondition contains = new MemberSearchCondition();
+		contains.setUsername("lic");
+		contains.setUsernameMatch(MemberSearchCondition.UsernameMatch.CONTAINS);
+
+		MemberSearchCondition shortContains = new MemberSearchCondition();
+		shortContains.setUsername("o");
+		shortContains.setUsernameMatch(MemberSearchCondition.UsernameMatch.CONTAINS);
+
+		// when, then
+		assertThat(memberRepository.search(prefix)).extracting("username")
+			.containsExactlyInAnyOrder("alice", "alicia");
+		assertThat(memberRepository.search(contains)).extracting("username")
+			.containsExactlyInAnyOrder("alice", "alicia", "malice");
+		assertThat(memberRepository.search(shortContains)).extracting("username")
+			.containsExactly("bob");
+		assertThat(memberRepository.searchPageComplex(contains, PageRequest.of(0, 2)).getTotalElements())
+			.isEqualTo(3);
+	}
+
+	@DisplayName("bulkUpdate 로 바뀐 username 도 contains 검색")
+	@Test
+	void searchByContainsAfterBulkUpdate() {
+
+		// given
+		em.persist(new Member("alice", 10));
+		em.persist(new Member("bob", 20));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeLoe(15);
+		memberRepository.bulkUpdate(condition, update -> update.set(member.username, "charlie"), 100, 1);
+
+		MemberSearchCondition contains = new MemberSearchCondition();
+		contains.setUsername("arl");
+		contains.setUsernameMatch(MemberSearchCondition.UsernameMatch.CONTAINS);
+
+		MemberSearchCondition oldName = new MemberSearchCondition();
+		oldName.setUsername("lic");
+		oldName.setUsernameMatch(MemberSearchCondition.UsernameMatch.CONTAINS);
+
+		// when, then
+		assertThat(memberRepository.search(contains)).extracting("username").containsExactly("charlie");
+		assertThat(memberRepository.search(oldName)).isEmpty();
+	}
+
+	@DisplayName("searchPageFromView - 팀 이름 변경, 팀 이동, 삭제 반영")
+	@Test
+	void searchPageFromView() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		Member member1 = new Member("member1", 10, teamA);
+		Member member2 = new Member("member2", 20, teamA);
+		Member member3 = new Member("member3", 30, teamB);
+		Member member4 = new Member("member4", 40, teamB);
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.persist(member4);
+		em.flush();
+
+		// when
+		teamA.setName("teamC");
+		member3.changeTeam(teamA);
+		member3.setAge(35);
+		em.remove(member2);
+		em.flush();
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamC");
+		Page<MemberTeamDto> result = memberRepository.searchPageFromView(condition, PageRequest.of(0, 10));
+
+		// then
+		assertThat(result.getTotalElements()).isEqualTo(2);
+		assertThat(result.getContent())
+			.usingRecursiveFieldByFieldElementComparator()
+			.containsExactlyInAnyOrderElementsOf(memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)).getContent());
+		assertThat(result.getContent()).extracting("username", "age")
+			.containsExactlyInAnyOrder(tuple("member1", 10), tuple("member3", 35));
+	}
+
+	@DisplayName("조회 테이블 - 초기화되지 않은 팀 프록시로 저장한 회원도 팀 이름 반영")
+	@Test
+	void viewWithTeamReference() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+		em.flush();
+		em.clear();
+
+		// when
+		Member member1 = new Member("member1", 10, em.getReference(Team.class, teamA.getId()));
+		Member member2 = new Member("member2", 20, em.getReference(Team.class, teamB.getId()));
+		Member member3 = new Member("member3", 30, em.getReference(Team.class, teamA.getId()));
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.flush();
+		List<MemberTeamRecord> viewRecords = memberTeamViewRepository.findRecords(member1.getId() - 1, 10);
+
+		// then
+		assertThat(viewRecords).extracting("username", "teamName")
+			.containsExactly(tuple("member1", "teamA"), tuple("member2", "teamB"), tuple("member3", "teamA"));
+	}
+
+	@DisplayName("findMembers fetch profile 별 select 수")
+	@Test
+	void findMembersFetchProfile() {
+
+		// given
+		for(int i = 0; i < 5; i++) {
+			Team team = new Team("team" + i);
+			em.persist(team);
+			em.persist(new Member("member" + i, i, team));
+		}
+		em.flush();
+		em.clear();
+
+		// when
+		// join 으로 읽은 팀은 2차 캐시에 들어가므로 MEMBER_ONLY 를 먼저 실행한다
+		int memberOnlySelects = countSelects(MemberFetchProfile.MEMBER_ONLY);
+		em.clear();
+		int withTeamSelects = countSelects(MemberFetchProfile.MEMBER_WITH_TEAM);
+
+		// then
+		assertThat(withTeamSelects).isEqualTo(1);
+		// team 프록시 5개는 배치 select 한 번으로 초기화
+		assertThat(memberOnlySelects).isEqualTo(2);
+	}
+
+	private int countSelects(MemberFetchProfile fetchProfile) {
+		try(QueryCounter.Scope scope = queryCounter.start()) {
+			List<Member> members = memberRepository.findMembers(new MemberSearchCondition(), PageRequest.of(0, 10), fetchProfile);
+			assertThat(members).hasSize(5);
+			members.forEach(m -> m.getTeam().getName());
+			return scope.getSelectCount();
+		}
+	}
+
+	@DisplayName("searchRecords, findRecords - 생성 매퍼로 record 조회")
+	@Test
+	void searchRecords() {
+
+		// given
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+
+		Member member1 = new Member("member1", 10, teamA);
+		Member member2 = new Member("member2", 20, null);
+		Member member3 = new Member("member3", 30, teamA);
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.flush();
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(15);
+
+		// when
+		List<MemberTeamRecord> records = memberRepository.searchRecords(condition);
+		List<MemberTeamRecord> viewRecords = memberTeamViewRepository.findRecords(member1.getId() - 1, 2);
+
+		// then
+		assertThat(records).containsExactly(
+			new MemberTeamRecord(member2.getId(), "member2", 20, null, null),
+			new MemberTeamRecord(member3.getId(), "member3", 30, teamA.getId(), "teamA"));
+		assertThat(viewRecords).containsExactly(
+			new MemberTeamRecord(member1.getId(), "member1", 10, teamA.getId(), "teamA"),
+			new MemberTeamRecord(member2.getId(), "member2", 20, null, null));
+	}
+
+	@DisplayName("searchByIdCursor")
+	@Test
+	void searchByIdCursor() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		Member member1 = new Member("member1", 10, teamA);
+		Member member2 = new Member("member2", 20, teamA);
+
+		Member member3 = new Member("member3", 30, teamB);
+		Member member4 = new Member("member4", 40, teamB);
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.persist(member4);
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		// when
+		Slice<MemberTeamDto> first = memberRepository.searchByIdCursor(condition, null, 3);
+		MemberTeamDto last = first.getContent().get(first.getNumberOfElements() - 1);
+		MemberCursor cursor = MemberCursor.decode(MemberCursor.of(last.getMemberId()).encode());
+		Slice<MemberTeamDto> second = memberRepository.searchByIdCursor(condition, cursor, 3);
+
+		// then
+		assertThat(first.hasNext()).isTrue();
+		assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+		assertThat(second.hasNext()).isFalse();
+		assertThat(second.getContent()).extracting("username").containsExactly("member4");
+	}
+
+	@DisplayName("searchByAgeCursor")
+	@Test
+	void searchByAgeCursor() {
+
+		// given
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+
+		Member member1 = new Member("member1", 20, teamA);
+		Member member2 = new Member("member2", 10, teamA);
+		Member member3 = new Member("member3", 20, teamA);
+		Member member4 = new Member("member4", 30, teamA);
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.persist(member4);
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+
+		// when
+		Slice<MemberTeamDto> first = memberRepository.searchByAgeCursor(condition, null, 2);
+		MemberTeamDto last = first.getContent().get(first.getNumberOfElements() - 1);
+		Slice<MemberTeamDto> second = memberRepository.searchByAgeCursor(condition, MemberCursor.of(last.getAge(), last.getMemberId()), 2);
+
+		// then
+		assertThat(first.getContent()).extracting("username").containsExactly("member2", "member1");
+		assertThat(second.getContent()).extracting("username").containsExactly("member3", "member4");
+		assertThat(second.hasNext()).isFalse();
+	}
+
+	@DisplayName("bulkUpdate")
+	@Test
+	void bulkUpdate() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		Member member1 = new Member("member1", 10, teamA);
+		Member member2 = new Member("member2", 20, teamA);
+
+		Member member3 = new Member("member3", 30, teamB);
+		Member member4 = new Member("member4", 40, teamB);
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.persist(member4);
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeLoe(28);
+
+		// when
+		MemberBulkResult result = memberRepository.bulkUpdate(condition,
+			update -> update.set(member.username, "비회원"), 1, 1);
+		List<MemberTeamRecord> viewRecords = memberTeamViewRepository.findRecords(member1.getId() - 1, 10);
+
+		// then
+		assertThat(result.getRows()).isEqualTo(2);
+		assertThat(result.getChunks()).isGreaterThanOrEqualTo(2);
+		assertThat(memberRepository.findAll()).extracting("username")
+			.containsExactlyInAnyOrder("비회원", "비회원", "member3", "member4");
+		assertThat(viewRecords).extracting("username")
+			.containsExactly("비회원", "비회원", "member3", "member4");
+	}
+
+	@DisplayName("bulkDelete")
+	@Test
+	void bulkDelete() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		Member member1 = new Member("member1", 10, teamA);
+		Member member2 = new Member("member2", 20, teamA);
+
+		Member member3 = new Member("member3", 30, teamB);
+		Member member4 = new Member("member4", 40, teamB);
+		em.persist(member1);
+		em.persist(member2);
+		em.persist(member3);
+		em.persist(member4);
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamB");
+
+		// when
+		MemberBulkResult result = memberRepository.bulkDelete(condition, 100, 1);
+		List<MemberTeamRecord> viewRecords = memberTeamViewRepository.findRecords(member1.getId() - 1, 10);
+
+		// then
+		assertThat(result.getRows()).isEqualTo(2);
+		assertThat(memberRepository.findAll()).extracting("username")
+			.containsExactlyInAnyOrder("member1", "member2");
+		// 조회 테이블도 청크 id 범위로 다시 맞춘다
+		assertThat(viewRecords).extracting("username").containsExactly("member1", "member2");
+	}
+
+	@DisplayName("인메모리 인덱스 검색 결과가 DB 검색과 같음")
+	@Test
+	void memoryIndexSearch() {
+
+		// given
+		Team teamA = new Team("teamA");
+		Team teamB = new Team("teamB");
+		em.persist(teamA);
+		em.persist(teamB);
+
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.persist(new Member("member3", 30, teamB));
+		em.persist(new Member("member4", 40, teamB));
+		em.persist(new Member("member4", 40));
+		em.flush();
+
+		MemberSearchCondition byTeamAndAge = new MemberSearchCondition();
+		byTeamAndAge.setTeamName("teamB");
+		byTeamAndAge.setAgeGoe(35);
+
+		MemberSearchCondition byUsername = new MemberSearchCondition();
+		byUsername.setUsername("member4");
+
+		MemberSearchCondition unknownTeam = new MemberSearchCondition();
+		unknownTeam.setTeamName("teamC");
+
+		// when
+		MemberMemoryIndex.Snapshot snapshot = memberMemoryIndex.load();
+
+		// then
+		for(MemberSearchCondition condition : List.of(new MemberSearchCondition(), byTeamAndAge, byUsername, unknownTeam)) {
+			assertThat(snapshot.search(condition))
+				.usingRecursiveFieldByFieldElementComparator()
+				.containsExactlyInAnyOrderElementsOf(memberRepository.search(condition));
+		}
+
+		Page<MemberTeamDto> page = snapshot.searchPage(new MemberSearchCondition(), PageRequest.of(1, 2));
+		assertThat(page.getTotalElements()).isEqualTo(5);
+		assertThat(page.getContent()).extracting("username").containsExactly("member3", "member4");
+	}
+
+	@DisplayName("저장, 벌크 연산 시 데이터 버전 증가")
+	@Test
+	void dataVersion() {
+
+		// given
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.flush();
+
+		// when
+		long version1 = memberDataVersion.getVersion();
+		memberRepository.save(new Member("member1", 10, teamA));
+		em.flush();
+		long version2 = memberDataVersion.getVersion();
+		memberRepository.bulkUpdate(new MemberSearchCondition(), update -> update.set(member.age, 20), 100, 1);
+		long version3 = memberDataVersion.getVersion();
+
+		// then
+		assertThat(version2).isGreaterThan(version1);
+		assertThat(version3).isGreaterThan(version2);
+	}
+
 	@DisplayName("querydslPredicateExecutor")
 	@Test
 	void querydslPredicateExecutor() {
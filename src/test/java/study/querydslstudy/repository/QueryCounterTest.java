@@ -0,0 +1,75 @@
+package study.querydslstudy.repository;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.Team;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydslstudy.support.QueryBudgetExtension.assertSelectsAtMost;
+
+@SpringBootTest
+@Transactional
+@ExtendWith(OutputCaptureExtension.class)
+class QueryCounterTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	QueryCounter queryCounter;
+
+	@DisplayName("같은 형태의 select 가 warnThreshold 번 반복되면 N+1 경고")
+	@Test
+	void nPlusOneWarning(CapturedOutput output) {
+
+		// when
+		int maxRepeated;
+		try(QueryCounter.Scope scope = queryCounter.start(3)) {
+			for(int age = 0; age < 2; age++) {
+				countOlderThan(age);
+			}
+			assertThat(output).doesNotContain("N+1 의심");
+
+			countOlderThan(2);
+			maxRepeated = scope.getMaxRepeatedSelects();
+		}
+
+		// then
+		assertThat(maxRepeated).isEqualTo(3);
+		assertThat(output).contains("N+1 의심: 같은 select 가 3번 실행되었습니다.");
+	}
+
+	@DisplayName("지연 로딩 팀 초기화는 배치 fetch 로 select 예산 안에서 끝남")
+	@Test
+	void lazyTeamsWithinBudget() {
+
+		// given
+		for(int i = 0; i < 5; i++) {
+			Team team = new Team("team" + i);
+			em.persist(team);
+			em.persist(new Member("member" + i, 10 + i, team));
+		}
+		em.flush();
+		em.clear();
+
+		// when, then
+		// 회원 1번 + 팀 5개를 in 절로 1번
+		assertSelectsAtMost(queryCounter, 2, () -> em.createQuery("select m from Member m", Member.class)
+			.getResultList()
+			.forEach(member -> member.getTeam().getName()));
+	}
+
+	private void countOlderThan(int age) {
+		em.createNativeQuery("select count(*) from member where age > ?")
+			.setParameter(1, age)
+			.getSingleResult();
+	}
+}
@@ -0,0 +1,261 @@
+package study.querydslstudy.repository;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.JdbcEventListener;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydslstudy.dto.MemberCursor;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.Team;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 검색 메서드가 실행하는 select 문을 잡아서 H2 EXPLAIN 으로 실행 계획을 확인한다.
+ * 인덱스가 빠져서 full table scan(tableScan)으로 바뀌면 테스트가 실패한다.
+ */
+@SpringBootTest
+@Transactional
+@Import(QueryPlanTest.SqlCaptureConfig.class)
+class QueryPlanTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	MemberJpaRepository memberJpaRepository;
+
+	@Autowired
+	SqlCapture sqlCapture;
+
+	@BeforeEach
+	void before() {
+		List<Team> teams = new ArrayList<>();
+		for(int i = 0; i < 20; i++) {
+			Team team = new Team("team" + i);
+			em.persist(team);
+			teams.add(team);
+		}
+
+		for(int i = 0; i < 2000; i++) {
+			em.persist(new Member("member" + i, i % 100, teams.get(i % teams.size())));
+		}
+
+		em.flush();
+		em.clear();
+	}
+
+	@DisplayName("username 검색은 인덱스 사용")
+	@Test
+	void usernamePlan() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername("member31");
+
+		// when, then
+		assertNoTableScan(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)));
+	}
+
+	@DisplayName("username prefix 검색은 인덱스 사용")
+	@Test
+	void usernamePrefixPlan() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername("member31");
+		condition.setUsernameMatch(MemberSearchCondition.UsernameMatch.PREFIX);
+
+		// when, then
+		assertNoTableScan(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)));
+	}
+
+	@DisplayName("username contains 검색은 trigram 인덱스 사용")
+	@Test
+	void usernameContainsPlan() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setUsername("ber31");
+		condition.setUsernameMatch(MemberSearchCondition.UsernameMatch.CONTAINS);
+
+		// when, then
+		assertNoTableScan(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)));
+		assertNoTableScan(() -> memberJpaRepository.searchByWhereParam(condition));
+	}
+
+	@DisplayName("teamName 검색은 인덱스 사용")
+	@Test
+	void teamNamePlan() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("team7");
+
+		// when, then
+		assertNoTableScan(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 10)));
+	}
+
+	@DisplayName("조회 테이블의 teamName 검색은 join 없이 인덱스 사용")
+	@Test
+	void teamNameViewPlan() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("team7");
+
+		// when
+		List<String> selects = sqlCapture.capture(() -> memberRepository.searchPageFromView(condition, PageRequest.of(0, 10)));
+
+		// then
+		assertThat(selects).allSatisfy(sql -> assertThat(sql.toLowerCase(Locale.ROOT)).doesNotContain(" join "));
+		assertNoTableScan(() -> memberRepository.searchPageFromView(condition, PageRequest.of(0, 10)));
+	}
+
+	@DisplayName("teamName + age 범위 검색은 인덱스 사용")
+	@Test
+	void teamNameAndAgePlan() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("team7");
+		condition.setAgeGoe(31);
+		condition.setAgeLoe(35);
+
+		// when, then
+		assertNoTableScan(() -> memberRepository.search(condition));
+	}
+
+	@DisplayName("age 범위 검색은 인덱스 사용")
+	@Test
+	void agePlan() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(31);
+		condition.setAgeLoe(32);
+
+		// when, then
+		assertNoTableScan(() -> memberRepository.searchPageSimple(condition, PageRequest.of(0, 10)));
+	}
+
+	@DisplayName("id 커서 검색은 커서 위치부터 인덱스 사용")
+	@Test
+	void idCursorPlan() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("team7");
+
+		// when, then
+		assertNoTableScan(() -> memberRepository.searchByIdCursor(new MemberSearchCondition(), MemberCursor.of(1000L), 10));
+		assertNoTableScan(() -> memberRepository.searchByIdCursor(condition, MemberCursor.of(1000L), 10));
+	}
+
+	@DisplayName("age 커서 검색은 커서 위치부터 인덱스 사용")
+	@Test
+	void ageCursorPlan() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("team7");
+
+		// when, then
+		assertNoTableScan(() -> memberRepository.searchByAgeCursor(new MemberSearchCondition(), MemberCursor.of(90, 1L), 10));
+		assertNoTableScan(() -> memberRepository.searchByAgeCursor(condition, MemberCursor.of(90, 1L), 10));
+	}
+
+	@DisplayName("count, exists 쿼리는 join 하지 않는다")
+	@Test
+	void countAndExistsWithoutJoin() {
+
+		// given
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setAgeGoe(31);
+		condition.setAgeLoe(32);
+
+		// when
+		List<String> counts = sqlCapture.capture(() -> memberRepository.countByCondition(condition));
+		List<String> exists = sqlCapture.capture(() -> memberRepository.existsByCondition(condition));
+
+		// then
+		assertThat(counts).singleElement().satisfies(sql -> assertThat(sql.toLowerCase(Locale.ROOT))
+			.contains("count(")
+			.doesNotContain(" join "));
+		assertThat(exists).singleElement().satisfies(sql -> assertThat(sql.toLowerCase(Locale.ROOT))
+			.doesNotContain("count(")
+			.doesNotContain(" join ")
+			.containsAnyOf("fetch first", "limit"));
+		assertNoTableScan(() -> memberRepository.countByCondition(condition));
+
+		// team 조건도 member.team.id 서브쿼리라서 join 하지 않는다
+		MemberSearchCondition teamCondition = new MemberSearchCondition();
+		teamCondition.setTeamName("team7");
+		assertThat(sqlCapture.capture(() -> memberRepository.countByCondition(teamCondition)))
+			.singleElement()
+			.satisfies(sql -> assertThat(sql.toLowerCase(Locale.ROOT)).doesNotContain(" join "));
+	}
+
+	private void assertNoTableScan(Runnable query) {
+		List<String> selects = sqlCapture.capture(query);
+		assertThat(selects).isNotEmpty();
+
+		for(String sql : selects) {
+			String plan = String.valueOf(em.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+			assertThat(plan).as("실행 계획: %s", plan).doesNotContain("tableScan");
+		}
+	}
+
+	@TestConfiguration
+	static class SqlCaptureConfig {
+
+		@Bean
+		SqlCapture sqlCapture() {
+			return new SqlCapture();
+		}
+	}
+
+	static class SqlCapture extends JdbcEventListener {
+
+		private final ThreadLocal<List<String>> recording = new ThreadLocal<>();
+
+		List<String> capture(Runnable action) {
+			List<String> statements = new ArrayList<>();
+			recording.set(statements);
+			try {
+				action.run();
+			}
+			finally {
+				recording.remove();
+			}
+			return statements;
+		}
+
+		@Override
+		public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+			List<String> statements = recording.get();
+			String sql = statementInformation.getSqlWithValues();
+			if(statements != null && sql != null && sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select")) {
+				statements.add(sql);
+			}
+		}
+	}
+}
@@ -0,0 +1,136 @@
+package study.querydslstudy.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.Team;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TeamRepository teamRepository;
+
+	@Autowired
+	QueryCounter queryCounter;
+
+	@DisplayName("팀 2차 캐시 조회")
+	@Test
+	void secondLevelCache() {
+
+		// given
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.flush();
+		em.clear();
+
+		Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+
+		// when
+		em.find(Team.class, teamA.getId());
+		em.clear();
+		long hitCount = statistics.getSecondLevelCacheHitCount();
+		Team findTeam = em.find(Team.class, teamA.getId());
+
+		// then
+		assertThat(findTeam.getName()).isEqualTo("teamA");
+		assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(hitCount + 1);
+	}
+
+	@DisplayName("팀 이름 변경 시 이름 조회 캐시 무효화")
+	@Test
+	void findByNameAfterRename() {
+
+		// given
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.flush();
+		em.clear();
+
+		assertThat(teamRepository.findByName("teamA")).hasSize(1);
+
+		// when
+		Team findTeam = em.find(Team.class, teamA.getId());
+		findTeam.setName("teamC");
+		em.flush();
+		em.clear();
+
+		// then
+		assertThat(teamRepository.findByName("teamA")).isEmpty();
+		assertThat(teamRepository.findByName("teamC")).extracting("id").containsExactly(teamA.getId());
+	}
+
+	@DisplayName("팀 페이지의 members 초기화는 팀 수와 상관없이 select 한 번")
+	@Test
+	void teamPageMembersBatchFetch() {
+
+		// given
+		for(int i = 0; i < 10; i++) {
+			Team team = new Team("team" + i);
+			em.persist(team);
+			for(int j = 0; j < 3; j++) {
+				em.persist(new Member("member" + i + "-" + j, j, team));
+			}
+		}
+		em.flush();
+		em.clear();
+
+		// when
+		int selectCount;
+		int memberCount = 0;
+		try(QueryCounter.Scope scope = queryCounter.start()) {
+			Page<Team> page = teamRepository.findAll(PageRequest.of(0, 10));
+			for(Team team : page.getContent()) {
+				memberCount += team.getMembers().size();
+			}
+			selectCount = scope.getSelectCount();
+		}
+
+		// then
+		// 팀 페이지 + count + members 배치 1회 (배치가 없으면 팀마다 1회씩 10회)
+		assertThat(memberCount).isEqualTo(30);
+		assertThat(selectCount).isEqualTo(3);
+	}
+
+	@DisplayName("team-with-members entity graph 로 members 를 함께 조회")
+	@Test
+	void findWithMembers() {
+
+		// given
+		Team teamA = new Team("teamA");
+		em.persist(teamA);
+		em.persist(new Member("member1", 10, teamA));
+		em.persist(new Member("member2", 20, teamA));
+		em.flush();
+		em.clear();
+
+		// when
+		int selectCount;
+		List<Team> teams;
+		try(QueryCounter.Scope scope = queryCounter.start()) {
+			teams = teamRepository.findWithMembersByIdIn(List.of(teamA.getId()));
+			teams.get(0).getMembers().size();
+			selectCount = scope.getSelectCount();
+		}
+
+		// then
+		assertThat(teams.get(0).getMembers()).hasSize(2);
+		assertThat(selectCount).isEqualTo(1);
+	}
+}
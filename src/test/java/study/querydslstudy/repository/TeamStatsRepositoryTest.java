@@ -0,0 +1,175 @@
+package study.querydslstudy.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydslstudy.dto.MemberSearchCondition;
+import study.querydslstudy.dto.TeamStatsDto;
+import study.querydslstudy.entity.Member;
+import study.querydslstudy.entity.Team;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydslstudy.entity.QMember.member;
+
+/**
+ * team_stats 는 커밋 직전에 반영되므로 롤백되는 @Transactional 테스트 대신 트랜잭션을 직접 커밋하고 정리한다.
+ */
+@SpringBootTest
+class TeamStatsRepositoryTest {
+
+	@Autowired
+	EntityManager em;
+
+	@Autowired
+	TeamStatsRepository teamStatsRepository;
+
+	@Autowired
+	MemberRepository memberRepository;
+
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	TransactionTemplate transactionTemplate;
+
+	List<Long> teamIds = new ArrayList<>();
+
+	@BeforeEach
+	void before() {
+		transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	@AfterEach
+	void after() {
+		transactionTemplate.executeWithoutResult(status -> {
+			for(Long teamId : teamIds) {
+				em.createQuery("select m from Member m where m.team.id = :teamId", Member.class)
+					.setParameter("teamId", teamId)
+					.getResultList()
+					.forEach(em::remove);
+				em.remove(em.find(Team.class, teamId));
+			}
+		});
+	}
+
+	@DisplayName("회원 insert, 나이/팀 변경, delete 시 팀 통계 증분 갱신")
+	@Test
+	void incrementalStats() {
+
+		// given
+		List<Long> memberIds = transactionTemplate.execute(status -> {
+			Team teamA = new Team("teamA");
+			Team teamB = new Team("teamB");
+			em.persist(teamA);
+			em.persist(teamB);
+			teamIds.add(teamA.getId());
+			teamIds.add(teamB.getId());
+
+			Member member1 = new Member("member1", 10, teamA);
+			Member member2 = new Member("member2", 20, teamA);
+			Member member3 = new Member("member3", 30, teamB);
+			em.persist(member1);
+			em.persist(member2);
+			em.persist(member3);
+			return List.of(member1.getId(), member2.getId(), member3.getId());
+		});
+
+		assertThat(stats(teamIds.get(0))).extracting("memberCount", "ageSum", "ageMin", "ageMax")
+			.containsExactly(2L, 30L, 10, 20);
+
+		// when
+		transactionTemplate.executeWithoutResult(status -> {
+			em.find(Member.class, memberIds.get(0)).setAge(50);
+			em.find(Member.class, memberIds.get(2)).changeTeam(em.find(Team.class, teamIds.get(0)));
+		});
+		transactionTemplate.executeWithoutResult(status -> em.remove(em.find(Member.class, memberIds.get(1))));
+
+		// then
+		TeamStatsDto teamA = stats(teamIds.get(0));
+		assertThat(teamA).extracting("memberCount", "ageSum", "ageMin", "ageMax")
+			.containsExactly(2L, 80L, 30, 50);
+		assertThat(teamA.getAgeAvg()).isEqualTo(40.0);
+
+		TeamStatsDto teamB = stats(teamIds.get(1));
+		assertThat(teamB).extracting("memberCount", "ageSum", "ageMin", "ageMax")
+			.containsExactly(0L, 0L, null, null);
+		assertThat(teamB.getAgeAvg()).isNull();
+
+		assertThat(teamStatsRepository.reconcile()).isZero();
+	}
+
+	@DisplayName("벌크 update 로 팀을 옮기면 옮기기 전후 팀의 통계만 다시 계산")
+	@Test
+	void bulkChangedStats() {
+
+		// given
+		transactionTemplate.executeWithoutResult(status -> {
+			Team teamA = new Team("teamA");
+			Team teamB = new Team("teamB");
+			em.persist(teamA);
+			em.persist(teamB);
+			teamIds.add(teamA.getId());
+			teamIds.add(teamB.getId());
+
+			em.persist(new Member("member1", 10, teamA));
+			em.persist(new Member("member2", 20, teamA));
+			em.persist(new Member("member3", 30, teamB));
+		});
+		Team teamB = transactionTemplate.execute(status -> em.find(Team.class, teamIds.get(1)));
+
+		MemberSearchCondition condition = new MemberSearchCondition();
+		condition.setTeamName("teamA");
+		condition.setAgeGoe(15);
+
+		// when
+		memberRepository.bulkUpdate(condition, update -> update.set(member.team, teamB), 100, 1);
+
+		// then
+		assertThat(stats(teamIds.get(0))).extracting("memberCount", "ageSum", "ageMin", "ageMax")
+			.containsExactly(1L, 10L, 10, 10);
+		assertThat(stats(teamIds.get(1))).extracting("memberCount", "ageSum", "ageMin", "ageMax")
+			.containsExactly(2L, 50L, 20, 30);
+		assertThat(teamStatsRepository.reconcile()).isZero();
+	}
+
+	@DisplayName("요약 행이 없는 팀에 회원을 추가하면 member 에서 다시 계산해서 넣는다")
+	@Test
+	void missingStatsRow() {
+
+		// given
+		Long teamId = transactionTemplate.execute(status -> {
+			Team team = new Team("teamA");
+			em.persist(team);
+			teamIds.add(team.getId());
+			em.persist(new Member("member1", 10, team));
+			return team.getId();
+		});
+		transactionTemplate.executeWithoutResult(status -> em.unwrap(Session.class)
+			.doWork(connection -> teamStatsRepository.delete(connection, teamId)));
+
+		// when
+		transactionTemplate.executeWithoutResult(status ->
+			em.persist(new Member("member2", 20, em.find(Team.class, teamId))));
+
+		// then
+		assertThat(stats(teamId)).extracting("memberCount", "ageSum", "ageMin", "ageMax")
+			.containsExactly(2L, 30L, 10, 20);
+		assertThat(teamStatsRepository.reconcile()).isZero();
+	}
+
+	private TeamStatsDto stats(Long teamId) {
+		return teamStatsRepository.findAll().stream()
+			.filter(stats -> stats.getTeamId().equals(teamId))
+			.findFirst()
+			.orElseThrow();
+	}
+}
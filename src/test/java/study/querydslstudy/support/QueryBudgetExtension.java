@@ -0,0 +1,40 @@
+package study.querydslstudy.support;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import study.querydslstudy.repository.QueryCounter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+	@Override
+	public void beforeTestExecution(ExtensionContext context) {
+		QueryCounter queryCounter = SpringExtension.getApplicationContext(context).getBean(QueryCounter.class);
+		context.getStore(NAMESPACE).put(context.getUniqueId(), queryCounter.start());
+	}
+
+	@Override
+	public void afterTestExecution(ExtensionContext context) {
+		QueryCounter.Scope scope = context.getStore(NAMESPACE).remove(context.getUniqueId(), QueryCounter.Scope.class);
+		scope.close();
+
+		QueryBudget budget = context.getRequiredTestMethod().getAnnotation(QueryBudget.class);
+		assertThat(scope.getSelectCount())
+			.as("select 문 개수가 예산(%d)을 초과했습니다", budget.maxSelects())
+			.isLessThanOrEqualTo(budget.maxSelects());
+	}
+
+	public static void assertSelectsAtMost(QueryCounter queryCounter, int maxSelects, Runnable block) {
+		try(QueryCounter.Scope scope = queryCounter.start()) {
+			block.run();
+			assertThat(scope.getSelectCount())
+				.as("select 문 개수가 예산(%d)을 초과했습니다", maxSelects)
+				.isLessThanOrEqualTo(maxSelects);
+		}
+	}
+}